@@ -0,0 +1,58 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.entity.card.BankCard;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.service.card.mapper.CardMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг строки списка карт в ответ: из сущности и из проекции.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardMapperBenchmark {
+
+    private BankCard card;
+    private CardView view;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        UUID ownerId = UUID.randomUUID();
+        LocalDate exp = LocalDate.now().plusYears(2);
+
+        card = BankCard.builder()
+                .id(UUID.randomUUID())
+                .owner(AppUser.builder().id(ownerId).build())
+                .maskedCardNumber("**** **** **** 1111")
+                .expirationDate(exp)
+                .balance(new BigDecimal("100.00"))
+                .status(BankCardStatus.ACTIVE)
+                .build();
+        view = new CardView(card.getId(), card.getMaskedCardNumber(), exp, card.getBalance(),
+                BankCardStatus.ACTIVE, ownerId);
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public CardResponse fromEntity() {
+        return CardMapper.toResponse(card, today);
+    }
+
+    @Benchmark
+    public CardResponse fromView() {
+        return CardMapper.toResponse(view, today);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.PanEncryptor;
+import com.example.bankcards.util.PepperHashEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шифрование и хэширование PAN при создании карты.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CryptoBenchmark {
+
+    private static final String PAN = "4111111111111111";
+
+    private PanEncryptor panEncryptor;
+    private PepperHashEncoder hashEncoder;
+
+    @Setup
+    public void setUp() {
+        panEncryptor = new PanEncryptor("benchmark-password", "benchmark-salt");
+        hashEncoder = new PepperHashEncoder("benchmark-pepper");
+    }
+
+    @Benchmark
+    public String panEncrypt() {
+        return panEncryptor.encrypt(PAN);
+    }
+
+    @Benchmark
+    public String pepperSha256Hex() {
+        return hashEncoder.sha256Hex(PAN);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.entity.user.UserRole;
+import com.example.bankcards.service.auth.JwtServiceImpl;
+import com.example.bankcards.service.auth.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск токена при логине и разбор JWT на каждом запросе:
+ * legacy - как было: новый парсер на каждый вызов, разбор дважды (extractUsername + isTokenValid);
+ * prebuiltParser - один заранее собранный парсер, один разбор;
+ * verifiedCache - то же плюс кэш проверенных токенов (повтор того же bearer-токена).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "raw:benchmark-secret-benchmark-secret-0123456789";
+
+    private SecretKey key;
+    private JwtServiceImpl withoutCache;
+    private JwtServiceImpl withCache;
+    private AppUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.substring("raw:".length()).getBytes(StandardCharsets.UTF_8));
+        withoutCache = new JwtServiceImpl(SECRET, 3_600_000, 0);
+        withCache = new JwtServiceImpl(SECRET, 3_600_000, 10_000);
+
+        user = AppUser.builder()
+                .id(UUID.randomUUID())
+                .email("user@mail.ru")
+                .role(UserRole.ROLE_USER)
+                .build();
+        token = withCache.issueToken(user);
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return withCache.issueToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        Claims first = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        Claims second = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return first.getSubject().equals(second.getSubject())
+                && second.getExpiration().after(new Date());
+    }
+
+    @Benchmark
+    public ParsedToken prebuiltParser() {
+        return withoutCache.parseToken(token);
+    }
+
+    @Benchmark
+    public ParsedToken verifiedCache() {
+        return withCache.parseToken(token);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardMasker;
+import com.example.bankcards.util.EmailNormalizer;
+import com.example.bankcards.util.PanNormalizer;
+import com.example.bankcards.util.SortParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Утилиты, вызываемые на каждом запросе: нормализация входа, маскирование, разбор сортировки.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NormalizationBenchmark {
+
+    private final String rawPan = "4111 1111-1111 1111";
+    private final String normalizedPan = "4111111111111111";
+    private final String rawEmail = "  User.Name@Mail.RU ";
+    private final List<String> sort = List.of("expirationDate,desc", "balance", "id,asc");
+
+    @Benchmark
+    public String cardMask() {
+        return CardMasker.mask(normalizedPan);
+    }
+
+    @Benchmark
+    public String panNormalize() {
+        return PanNormalizer.normalize(rawPan);
+    }
+
+    @Benchmark
+    public String emailNormalize() {
+        return EmailNormalizer.normalize(rawEmail);
+    }
+
+    @Benchmark
+    public Sort sortParse() {
+        return SortParser.parseSort(sort);
+    }
+}
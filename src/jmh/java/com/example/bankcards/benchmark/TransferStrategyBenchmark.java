@@ -0,0 +1,128 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.BankCardApplication;
+import com.example.bankcards.dto.card.TransferRequest;
+import com.example.bankcards.dto.card.TransferResponse;
+import com.example.bankcards.service.card.TransferService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Переводы через TransferService на настоящем PostgreSQL (Testcontainers, нужен Docker):
+ * PESSIMISTIC - SELECT ... FOR UPDATE, OPTIMISTIC - условный UPDATE по version с повтором,
+ * ATOMIC - один CTE-оператор на перевод.
+ * LOW - случайные пары из CARDS карт, конфликты редки;
+ * HIGH - все потоки зачисляют на одну карту-"хаб", конфликт почти на каждом переводе.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TransferStrategyBenchmark {
+
+    private static final int CARDS = 512;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"PESSIMISTIC", "OPTIMISTIC", "ATOMIC"})
+    public String strategy;
+
+    @Param({"LOW", "HIGH"})
+    public String contention;
+
+    private PostgreSQLContainer postgres;
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private UUID userId;
+    private UUID[] cards;
+    private boolean hotHub;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer(DockerImageName.parse("postgres:16-alpine"));
+        postgres.start();
+
+        Map<String, Object> props = new HashMap<>();
+        props.put("spring.datasource.url", postgres.getJdbcUrl());
+        props.put("spring.datasource.username", postgres.getUsername());
+        props.put("spring.datasource.password", postgres.getPassword());
+        props.put("spring.main.banner-mode", "off");
+        props.put("server.port", "0");
+        props.put("logging.level.root", "WARN");
+        props.put("jwt.secret", "raw:benchmark-secret-benchmark-secret-0123456789");
+        props.put("encryptor.password", "benchmark-password");
+        props.put("encryptor.salt", "benchmark-salt");
+        props.put("app.hashEncoder.pepper", "benchmark-pepper");
+        props.put("app.admin.password", "benchmark-admin");
+        props.put("app.transfers.strategy", strategy);
+
+        context = new SpringApplicationBuilder(BankCardApplication.class)
+                .properties(props)
+                .run();
+        transferService = context.getBean(TransferService.class);
+
+        seed(context.getBean(JdbcTemplate.class));
+        hotHub = "HIGH".equals(contention);
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        userId = UUID.randomUUID();
+        jdbc.update("""
+                insert into users (id, name, email, password_hash, role)
+                values (?, 'bench', 'bench@local', 'x', 'ROLE_USER')
+                """, userId);
+
+        cards = new UUID[CARDS];
+        List<Object[]> rows = new ArrayList<>(CARDS);
+        Date exp = Date.valueOf(LocalDate.now().plusYears(3));
+        for (int i = 0; i < CARDS; i++) {
+            cards[i] = UUID.randomUUID();
+            rows.add(new Object[]{cards[i], exp, userId, cards[i].toString()});
+        }
+        jdbc.batchUpdate("""
+                insert into cards (id, encrypted_card_number, masked_card_number, expiration_date,
+                                   balance, status, user_id, pan_hash, deleted, version, pan_last4)
+                values (?, 'x', '**** **** **** 0000', ?, 1000000, 'ACTIVE', ?, ?, false, 0, '0000')
+                """, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) context.close();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Benchmark
+    public TransferResponse transfer() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        UUID from;
+        UUID to;
+        if (hotHub) {
+            from = cards[1 + rnd.nextInt(CARDS - 1)];
+            to = cards[0];
+        } else {
+            int i = rnd.nextInt(CARDS);
+            int j = (i + 1 + rnd.nextInt(CARDS - 1)) % CARDS;
+            from = cards[i];
+            to = cards[j];
+        }
+        return transferService.transfer(userId, new TransferRequest(from, to, AMOUNT));
+    }
+}
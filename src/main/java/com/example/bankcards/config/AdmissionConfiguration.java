@@ -0,0 +1,84 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.exception.ServiceOverloadedException;
+import com.example.bankcards.service.common.AdmissionController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Контроль допуска вокруг API: фильтр стоит перед Spring Security, потому что
+ * аутентификация по JWT тоже может обращаться к БД. Мониторинг не ограничивается,
+ * чтобы статистику можно было снять и под перегрузкой.
+ * Вход и переводы фильтр пропускает: они подолгу ждут без соединения (пул BCrypt, очередь CardLockManager),
+ * и с допуском на весь запрос десяток таких запросов занял бы все места. Переводы берут допуск
+ * в TransferServiceImpl после очереди по картам, вход держит соединение только на чтение пользователя.
+ */
+@Configuration
+public class AdmissionConfiguration {
+
+    static final String MONITORING_PREFIX = "/api/admin/monitoring/";
+    static final String AUTH_PREFIX = "/api/auth/";
+    static final String TRANSFERS_PATH = "/api/transfers";
+
+    // цепочка Spring Security регистрируется с порядком -100
+    private static final int FILTER_ORDER = -101;
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+            AdmissionController admissionController,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver
+    ) {
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(admissionController, exceptionResolver));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FILTER_ORDER);
+        registration.setEnabled(admissionController.isEnabled());
+        return registration;
+    }
+
+    static class AdmissionFilter extends OncePerRequestFilter {
+
+        private final AdmissionController admissionController;
+        private final HandlerExceptionResolver exceptionResolver;
+
+        AdmissionFilter(AdmissionController admissionController, HandlerExceptionResolver exceptionResolver) {
+            this.admissionController = admissionController;
+            this.exceptionResolver = exceptionResolver;
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            String uri = request.getRequestURI();
+            return uri.startsWith(MONITORING_PREFIX)
+                    || uri.startsWith(AUTH_PREFIX)
+                    || uri.equals(TRANSFERS_PATH) || uri.startsWith(TRANSFERS_PATH + "/");
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            try {
+                admissionController.acquire();
+            } catch (ServiceOverloadedException e) {
+                // ответ в общем формате ApiErrorResponse через ApiExceptionHandler
+                exceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                admissionController.release();
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.exception.ApiErrorResponse;
+import com.example.bankcards.security.BoundedPasswordEncoder;
 import com.example.bankcards.security.filter.JwtAuthFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
@@ -16,17 +19,19 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import java.io.IOException;
 import java.time.OffsetDateTime;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -39,7 +44,9 @@ public class SecurityConfiguration {
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
-            AuthenticationProvider authenticationProvider
+            AuthenticationProvider authenticationProvider,
+            @Value("${server.port:8080}") int serverPort,
+            @Value("${management.server.port:0}") int managementPort
     ) {
         try {
             return http
@@ -54,8 +61,11 @@ public class SecurityConfiguration {
                                     "/api/auth/**",
                                     "/swagger-ui.html", "/swagger-ui/**",
                                     "/v3/api-docs", "/v3/api-docs/**",
-                                    "/v3/api-docs.yaml"
+                                    "/v3/api-docs.yaml",
+                                    "/actuator/health"
                             ).permitAll()
+                            .requestMatchers(prometheusScrape(serverPort, managementPort)).permitAll()
+                            .requestMatchers("/actuator/**").hasRole("ADMIN")
                             .requestMatchers("/api/admin/**").hasRole("ADMIN")
                             .anyRequest().authenticated()
                     )
@@ -67,6 +77,16 @@ public class SecurityConfiguration {
         }
     }
 
+    /**
+     * Prometheus без токена - только на отдельном порту actuator (management.server.port), который не публикуется наружу.
+     * Если порт не выделен, /actuator/prometheus доступен только ADMIN, как и остальные эндпоинты actuator.
+     */
+    private static RequestMatcher prometheusScrape(int serverPort, int managementPort) {
+        return request -> managementPort > 0 && managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider(
             UserDetailsService userDetailsService,
@@ -74,12 +94,51 @@ public class SecurityConfiguration {
     ) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        // при успешном входе хэш с меньшей стоимостью BCrypt пересчитывается и сохраняется
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            provider.setUserDetailsPasswordService(passwordService);
+        }
         return provider;
     }
 
+    /**
+     * Стоимость BCrypt - app.security.password.bcrypt-strength (по умолчанию 10, как у BCryptPasswordEncoder).
+     * 0 - подобрать при старте под target-ms на хэш: замер под нагрузкой старта занижает стоимость,
+     * поэтому подбор только по явной настройке.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt-strength:10}") int strength,
+            @Value("${app.security.password.calibration.target-ms:250}") long targetMs,
+            @Value("${app.security.password.calibration.min-strength:10}") int minStrength,
+            @Value("${app.security.password.calibration.max-strength:14}") int maxStrength,
+            @Value("${app.security.password.hashing.threads:0}") int threads,
+            @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        if (strength != 0 && (strength < 4 || strength > 31)) {
+            throw new IllegalStateException("app.security.password.bcrypt-strength должен быть 0 или от 4 до 31");
+        }
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalStateException(
+                    "app.security.password.calibration: нужно 4 <= min-strength <= max-strength <= 31");
+        }
+        if (targetMs <= 0) {
+            throw new IllegalStateException("app.security.password.calibration.target-ms должен быть > 0");
+        }
+        if (threads < 0) {
+            throw new IllegalStateException("app.security.password.hashing.threads должен быть >= 0");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalStateException("app.security.password.hashing.queue-capacity должен быть > 0");
+        }
+
+        int cost = strength;
+        if (cost == 0) {
+            cost = BoundedPasswordEncoder.calibrate(targetMs, minStrength, maxStrength);
+            log.info("BCrypt: подобрана стоимость {} под {} мс на хэш", cost, targetMs);
+        }
+        int poolSize = (threads == 0) ? Runtime.getRuntime().availableProcessors() : threads;
+        return new BoundedPasswordEncoder(cost, poolSize, queueCapacity);
     }
 
     @Bean
@@ -0,0 +1,93 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.tracing.BankTracing;
+import com.example.bankcards.tracing.SlowTraceRecorder;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Трассировка на OpenTelemetry SDK без экспорта: единственный обработчик спанов - SlowTraceRecorder,
+ * записываются только запросы к отслеживаемым путям (SlowTraceRecorder.sampler).
+ * Корневой спан HTTP-запроса открывается раньше контроля допуска и Spring Security,
+ * поэтому ожидание допуска и JwtAuthFilter попадают в дерево.
+ */
+@Configuration
+public class TracingConfiguration {
+
+    // AdmissionConfiguration - -101, цепочка Spring Security - -100
+    private static final int FILTER_ORDER = -102;
+
+    @Bean
+    public SdkTracerProvider sdkTracerProvider(SlowTraceRecorder slowTraceRecorder) {
+        return SdkTracerProvider.builder()
+                .setSampler(slowTraceRecorder.sampler())
+                .addSpanProcessor(slowTraceRecorder)
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(SdkTracerProvider sdkTracerProvider) {
+        return sdkTracerProvider.get(BankTracing.INSTRUMENTATION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer, SlowTraceRecorder slowTraceRecorder) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FILTER_ORDER);
+        registration.setEnabled(slowTraceRecorder.isEnabled());
+        return registration;
+    }
+
+    static class TracingFilter extends OncePerRequestFilter {
+
+        private final Tracer tracer;
+
+        TracingFilter(Tracer tracer) {
+            this.tracer = tracer;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            Span span = tracer.spanBuilder("HTTP " + request.getMethod())
+                    .setSpanKind(SpanKind.SERVER)
+                    .setAttribute(BankTracing.HTTP_METHOD, request.getMethod())
+                    .setAttribute(BankTracing.URL_PATH, request.getRequestURI())
+                    .startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                chain.doFilter(request, response);
+            } catch (ServletException | IOException | RuntimeException e) {
+                BankTracing.markError(span, e);
+                throw e;
+            } finally {
+                // шаблон пути известен только после выбора обработчика
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (route != null) {
+                    span.setAttribute(BankTracing.HTTP_ROUTE, route.toString());
+                    span.updateName(request.getMethod() + " " + route);
+                } else {
+                    span.updateName(request.getMethod() + " " + request.getRequestURI());
+                }
+                span.setAttribute(BankTracing.HTTP_STATUS, (long) response.getStatus());
+                if (response.getStatus() >= 500) span.setStatus(StatusCode.ERROR);
+                span.end();
+            }
+        }
+    }
+}
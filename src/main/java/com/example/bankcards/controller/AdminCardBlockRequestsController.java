@@ -3,6 +3,7 @@ package com.example.bankcards.controller;
 import com.example.bankcards.dto.card.CardBlockRequestResponse;
 import com.example.bankcards.entity.request.CardBlockStatus;
 import com.example.bankcards.service.card.CardBlockRequestsService;
+import com.example.bankcards.service.common.CountStrategy;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,16 +28,20 @@ public class AdminCardBlockRequestsController {
     private final CardBlockRequestsService service;
 
     @GetMapping
-    @Operation(summary = "Список заявок по статусу")
-    public Page<CardBlockRequestResponse> getAll(
+    @Operation(summary = "Список заявок по статусу",
+            description = "count - как считать totalElements: EXACT, ESTIMATED или CACHED; выбранный способ - в заголовке X-Total-Count-Strategy")
+    public ResponseEntity<Page<CardBlockRequestResponse>> getAll(
             @RequestParam(required = false, defaultValue = "WAITING") CardBlockStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) List<String> sort
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count
     ) {
         Sort s = parseSort(sort);
         Pageable pageable = PageRequest.of(page, size, s);
-        return service.getAll(status, pageable);
+        return ResponseEntity.ok()
+                .header(CountStrategy.HEADER, count.name())
+                .body(service.getAll(status, pageable, count));
     }
 
     @PatchMapping("/{id}/approve")
@@ -1,12 +1,24 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.card.CardAdminUpdateRequest;
+import com.example.bankcards.dto.card.CardBulkAction;
+import com.example.bankcards.dto.card.CardBulkStatusEvent;
 import com.example.bankcards.dto.card.CardCreateRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.TransferHistoryItem;
+import com.example.bankcards.dto.common.CursorSliceResponse;
 import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.service.card.CardBulkFormat;
+import com.example.bankcards.service.card.CardsBulkImportService;
+import com.example.bankcards.service.card.CardsBulkStatusService;
 import com.example.bankcards.service.card.CardsService;
+import com.example.bankcards.service.card.TransferHistoryService;
+import com.example.bankcards.service.common.CountStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +26,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,6 +51,10 @@ import static com.example.bankcards.util.SortParser.parseSort;
 public class AdminCardsController {
 
     private final CardsService cardsService;
+    private final CardsBulkImportService cardsBulkImportService;
+    private final CardsBulkStatusService cardsBulkStatusService;
+    private final TransferHistoryService transferHistoryService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Создать карту")
@@ -38,19 +63,97 @@ public class AdminCardsController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping(
+            value = "/bulk",
+            consumes = {CardBulkFormat.NDJSON_MEDIA_TYPE, CardBulkFormat.CSV_MEDIA_TYPE},
+            produces = CardBulkFormat.NDJSON_MEDIA_TYPE
+    )
+    @Operation(
+            summary = "Массовый выпуск карт (NDJSON или CSV)",
+            description = "Тело читается потоково. В ответ построчно (NDJSON) идут ошибки строк, прогресс по чанкам и итог"
+    )
+    public void bulkCreate(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CardBulkFormat format = CardBulkFormat.fromContentType(request.getContentType());
+        Charset charset = (request.getCharacterEncoding() != null)
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(CardBulkFormat.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = response.getWriter();
+
+        cardsBulkImportService.importCards(
+                new InputStreamReader(request.getInputStream(), charset),
+                format,
+                event -> writeEvent(out, event)
+        );
+    }
+
+    @PostMapping(value = "/bulk-status", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Массовая блокировка/активация/удаление карт по фильтру",
+            description = "Нужен ownerId или last4; status сужает выборку. Карты обрабатываются чанками, "
+                    + "каждый в своей транзакции; в ответе - сколько карт найдено и изменено"
+    )
+    public CardBulkStatusEvent bulkStatus(
+            @RequestParam CardBulkAction action,
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) BankCardStatus status,
+            @RequestParam(required = false) @Size(min = 4, max = 4) String last4
+    ) {
+        return cardsBulkStatusService.apply(action, ownerId, status, last4, event -> {});
+    }
+
+    @PostMapping(value = "/bulk-status", produces = CardBulkFormat.NDJSON_MEDIA_TYPE)
+    @Operation(summary = "Массовая смена статуса карт по фильтру с потоковым прогрессом",
+            description = "То же, что bulk-status, но после каждого чанка отдается строка PROGRESS (NDJSON), в конце - DONE")
+    public void bulkStatusStream(
+            @RequestParam CardBulkAction action,
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) BankCardStatus status,
+            @RequestParam(required = false) @Size(min = 4, max = 4) String last4,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(CardBulkFormat.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = response.getWriter();
+
+        cardsBulkStatusService.apply(action, ownerId, status, last4, event -> writeEvent(out, event));
+    }
+
     @GetMapping
-    @Operation(summary = "Поиск карт (фильтры + пагинация)")
-    public Page<CardResponse> search(
+    @Operation(summary = "Поиск карт (фильтры + пагинация)",
+            description = "count - как считать totalElements: EXACT, ESTIMATED или CACHED; выбранный способ - в заголовке X-Total-Count-Strategy")
+    public ResponseEntity<Page<CardResponse>> search(
             @RequestParam(required = false) UUID ownerId,
             @RequestParam(required = false) BankCardStatus status,
             @RequestParam(required = false) @Size(min = 4, max = 4) String last4,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) List<String> sort
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count
     ) {
         Sort s = parseSort(sort);
         Pageable pageable = PageRequest.of(page, size, s);
-        return cardsService.searchCards(ownerId, status, last4, pageable);
+        return ResponseEntity.ok()
+                .header(CountStrategy.HEADER, count.name())
+                .body(cardsService.searchCards(ownerId, status, last4, pageable, count));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Поиск карт (фильтры + курсорная пагинация)",
+            description = "Без общего количества; sort - одно поле из id, expirationDate, balance")
+    public CursorSliceResponse<CardResponse> scroll(
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) BankCardStatus status,
+            @RequestParam(required = false) @Size(min = 4, max = 4) String last4,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) List<String> sort
+    ) {
+        return cardsService.scrollCards(ownerId, status, last4, parseSort(sort), cursor, size);
     }
 
     @GetMapping("/{id}")
@@ -59,6 +162,19 @@ public class AdminCardsController {
         return cardsService.getAdminCardById(id);
     }
 
+    @GetMapping("/{id}/transfers")
+    @Operation(summary = "История переводов по карте (курсорная пагинация)",
+            description = "Списания и зачисления, новые первыми; from/to - окно по времени [from, to); доступна и для удаленных карт")
+    public CursorSliceResponse<TransferHistoryItem> getTransfers(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return transferHistoryService.getCardTransfers(id, from, to, cursor, size);
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Обновить атрибуты карты (ограниченно)")
     public CardResponse update(@PathVariable UUID id,
@@ -84,4 +200,14 @@ public class AdminCardsController {
         cardsService.deleteCard(id);
         return ResponseEntity.noContent().build(); // 204
     }
+
+    private void writeEvent(Writer out, Object event) {
+        try {
+            out.write(objectMapper.writeValueAsString(event));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
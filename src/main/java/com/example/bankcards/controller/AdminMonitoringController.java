@@ -0,0 +1,50 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.monitoring.AdmissionStatsResponse;
+import com.example.bankcards.dto.monitoring.CardLockStatsResponse;
+import com.example.bankcards.dto.monitoring.SlowTraceResponse;
+import com.example.bankcards.service.card.CardLockManager;
+import com.example.bankcards.service.common.AdmissionController;
+import com.example.bankcards.tracing.SlowTraceRecorder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Мониторинг (админ)")
+@RestController
+@RequestMapping("/api/admin/monitoring")
+@RequiredArgsConstructor
+public class AdminMonitoringController {
+
+    private final CardLockManager cardLockManager;
+    private final AdmissionController admissionController;
+    private final SlowTraceRecorder slowTraceRecorder;
+
+    @GetMapping("/card-locks")
+    @Operation(summary = "Очередь блокировок карт перед переводами",
+            description = "Глубина очереди, время ожидания и карты, за которые сейчас ждут потоки")
+    public CardLockStatsResponse cardLocks() {
+        return cardLockManager.stats();
+    }
+
+    @GetMapping("/admission")
+    @Operation(summary = "Контроль допуска запросов к БД",
+            description = "Выполняющиеся, ожидающие и отклоненные (503) запросы")
+    public AdmissionStatsResponse admission() {
+        return admissionController.stats();
+    }
+
+    @GetMapping("/slow-traces")
+    @Operation(summary = "Медленные запросы переводов и поиска карт",
+            description = "Деревья спанов запросов дольше app.tracing.slow.threshold-ms, новые первыми: "
+                    + "tx.begin - ожидание пула, tx.commit - фиксация, спаны репозиториев - запросы и блокировки строк")
+    public List<SlowTraceResponse> slowTraces(@RequestParam(defaultValue = "20") int limit) {
+        return slowTraceRecorder.recent(limit);
+    }
+}
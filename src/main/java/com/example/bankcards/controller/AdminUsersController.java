@@ -1,6 +1,7 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.user.*;
+import com.example.bankcards.service.common.CountStrategy;
 import com.example.bankcards.service.user.UsersService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -9,6 +10,7 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -22,8 +24,13 @@ public class AdminUsersController {
     private final UsersService usersService;
 
     @GetMapping
-    public Page<UserResponse> getUsers(@ParameterObject Pageable pageable) {
-        return usersService.getAll(pageable);
+    public ResponseEntity<Page<UserResponse>> getUsers(
+            @ParameterObject Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") CountStrategy count
+    ) {
+        return ResponseEntity.ok()
+                .header(CountStrategy.HEADER, count.name())
+                .body(usersService.getAll(pageable, count));
     }
 
     @PostMapping
@@ -44,6 +51,11 @@ public class AdminUsersController {
         return usersService.updateEnabled(id, req);
     }
 
+    @PostMapping("/{id}/unlock")
+    public UserResponse unlock(@PathVariable UUID id) {
+        return usersService.unlock(id);
+    }
+
     @PatchMapping("/{id}/password")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void resetPassword(@PathVariable UUID id,
@@ -6,6 +6,7 @@ import com.example.bankcards.service.auth.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -21,7 +22,7 @@ public class AuthenticationController {
     @PostMapping("/login")
     @Operation(summary = "Аутентификация пользователя и выдача JWT")
     @SecurityRequirements
-    public JwtResponse login(@RequestBody @Valid LoginRequest request) {
-        return authService.login(request);
+    public JwtResponse login(@RequestBody @Valid LoginRequest request, HttpServletRequest httpRequest) {
+        return authService.login(request, httpRequest.getRemoteAddr());
     }
 }
@@ -2,20 +2,28 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.card.BalanceResponse;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.card.TransferHistoryItem;
+import com.example.bankcards.dto.common.CursorSliceResponse;
 import com.example.bankcards.entity.card.BankCardStatus;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.service.card.CardsService;
+import com.example.bankcards.service.card.TransferHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import static com.example.bankcards.util.SortParser.parseSort;
+
 @Tag(name = "Карты (пользователь)")
 @RestController
 @RequestMapping("/api/cards")
@@ -23,6 +31,7 @@ import java.util.UUID;
 public class CardsController {
 
     private final CardsService cardsService;
+    private final TransferHistoryService transferHistoryService;
 
     @GetMapping
     @Operation(summary = "Список моих карт (фильтры + пагинация)")
@@ -35,6 +44,20 @@ public class CardsController {
         return cardsService.getMyCards(user.getId(), status, last4, pageable);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Список моих карт (фильтры + курсорная пагинация)",
+            description = "Без общего количества; sort - одно поле из id, expirationDate, balance")
+    public CursorSliceResponse<CardResponse> scrollMyCards(
+            @AuthenticationPrincipal AppUser user,
+            @RequestParam(required = false) BankCardStatus status,
+            @RequestParam(required = false) String last4,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) List<String> sort
+    ) {
+        return cardsService.scrollMyCards(user.getId(), status, last4, parseSort(sort), cursor, size);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить мою карту по id")
     public CardResponse getMyCard(
@@ -51,4 +74,18 @@ public class CardsController {
         return cardsService.getBalance(user.getId(), id);
     }
 
+    @GetMapping("/{id}/transfers")
+    @Operation(summary = "История переводов по моей карте (курсорная пагинация)",
+            description = "Списания и зачисления, новые первыми; from/to - окно по времени [from, to)")
+    public CursorSliceResponse<TransferHistoryItem> getTransfers(
+            @AuthenticationPrincipal AppUser user,
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return transferHistoryService.getMyCardTransfers(user.getId(), id, from, to, cursor, size);
+    }
+
 }
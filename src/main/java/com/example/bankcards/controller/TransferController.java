@@ -1,5 +1,7 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.card.TransferBatchRequest;
+import com.example.bankcards.dto.card.TransferBatchResponse;
 import com.example.bankcards.dto.card.TransferRequest;
 import com.example.bankcards.dto.card.TransferResponse;
 import com.example.bankcards.entity.user.AppUser;
@@ -20,11 +22,25 @@ public class TransferController {
     private final TransferService transferService;
 
     @PostMapping
-    @Operation(summary = "Перевод между своими картами")
+    @Operation(summary = "Перевод между своими картами",
+            description = "С заголовком Idempotency-Key повтор запроса возвращает результат первого перевода")
     public TransferResponse transfer(
             @AuthenticationPrincipal AppUser user,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid TransferRequest request
     ) {
-        return transferService.transfer(user.getId(), request);
+        if (idempotencyKey == null) {
+            return transferService.transfer(user.getId(), request);
+        }
+        return transferService.transfer(user.getId(), request, idempotencyKey);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Пакет переводов между своими картами (одна транзакция, результат по каждому переводу)")
+    public TransferBatchResponse transferBatch(
+            @AuthenticationPrincipal AppUser user,
+            @RequestBody @Valid TransferBatchRequest request
+    ) {
+        return transferService.transferBatch(user.getId(), request);
     }
 }
@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.card;
+
+public enum CardBulkAction {
+    BLOCK,
+    ACTIVATE,
+    DELETE
+}
@@ -0,0 +1,41 @@
+package com.example.bankcards.dto.card;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Строка NDJSON-ответа массового выпуска карт: ошибка строки, прогресс или итог")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CardBulkImportEvent(
+        @Schema(description = "Тип события")
+        CardBulkImportEventType type,
+
+        @Schema(description = "Номер строки входного файла (для ERROR)")
+        Long line,
+
+        @Schema(description = "Причина отказа по строке (для ERROR)")
+        String error,
+
+        @Schema(description = "Обработано строк")
+        Long processed,
+
+        @Schema(description = "Выпущено карт")
+        Long created,
+
+        @Schema(description = "Пропущено как уже существующие")
+        Long duplicates,
+
+        @Schema(description = "Отклонено с ошибкой")
+        Long failed
+) {
+    public static CardBulkImportEvent error(long line, String error) {
+        return new CardBulkImportEvent(CardBulkImportEventType.ERROR, line, error, null, null, null, null);
+    }
+
+    public static CardBulkImportEvent progress(long processed, long created, long duplicates, long failed) {
+        return new CardBulkImportEvent(CardBulkImportEventType.PROGRESS, null, null, processed, created, duplicates, failed);
+    }
+
+    public static CardBulkImportEvent done(long processed, long created, long duplicates, long failed) {
+        return new CardBulkImportEvent(CardBulkImportEventType.DONE, null, null, processed, created, duplicates, failed);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.dto.card;
+
+public enum CardBulkImportEventType {
+    ERROR,
+    PROGRESS,
+    DONE
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.dto.card;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Прогресс или итог массовой смены статуса карт по фильтру")
+public record CardBulkStatusEvent(
+        @Schema(description = "Тип события: PROGRESS после каждого чанка, DONE в конце")
+        CardBulkImportEventType type,
+
+        @Schema(description = "Операция")
+        CardBulkAction action,
+
+        @Schema(description = "Найдено карт по фильтру")
+        long matched,
+
+        @Schema(description = "Изменено карт (уже находившиеся в целевом состоянии не считаются)")
+        long affected,
+
+        @Schema(description = "Обработано чанков")
+        int chunks
+) {
+    public static CardBulkStatusEvent progress(CardBulkAction action, long matched, long affected, int chunks) {
+        return new CardBulkStatusEvent(CardBulkImportEventType.PROGRESS, action, matched, affected, chunks);
+    }
+
+    public static CardBulkStatusEvent done(CardBulkAction action, long matched, long affected, int chunks) {
+        return new CardBulkStatusEvent(CardBulkImportEventType.DONE, action, matched, affected, chunks);
+    }
+}
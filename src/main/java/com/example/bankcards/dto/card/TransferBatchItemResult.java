@@ -0,0 +1,28 @@
+package com.example.bankcards.dto.card;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат по одному переводу из пакета")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransferBatchItemResult(
+        @Schema(description = "Позиция перевода в пакете (с 0)", example = "0")
+        int index,
+
+        @Schema(description = "Итог обработки")
+        TransferBatchItemStatus status,
+
+        @Schema(description = "Проведенный перевод (для APPLIED)")
+        TransferResponse transfer,
+
+        @Schema(description = "Причина отказа (для REJECTED)", example = "Недостаточно средств")
+        String error
+) {
+    public static TransferBatchItemResult applied(int index, TransferResponse transfer) {
+        return new TransferBatchItemResult(index, TransferBatchItemStatus.APPLIED, transfer, null);
+    }
+
+    public static TransferBatchItemResult rejected(int index, String error) {
+        return new TransferBatchItemResult(index, TransferBatchItemStatus.REJECTED, null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.dto.card;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Пакет переводов между своими картами (выполняется в одной транзакции)")
+public record TransferBatchRequest(
+
+        @Schema(description = "Переводы в порядке применения", maxLength = 1000)
+        @NotEmpty(message = "items не должен быть пустым")
+        @Size(max = 1000, message = "items: не более 1000 переводов в пакете")
+        List<@Valid @NotNull(message = "элемент пакета не должен быть null") TransferRequest> items
+) {}
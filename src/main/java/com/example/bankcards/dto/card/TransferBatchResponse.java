@@ -0,0 +1,17 @@
+package com.example.bankcards.dto.card;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Ответ по пакету переводов")
+public record TransferBatchResponse(
+        @Schema(description = "Сколько переводов проведено", example = "98")
+        int applied,
+
+        @Schema(description = "Сколько переводов отклонено", example = "2")
+        int rejected,
+
+        @Schema(description = "Результаты по каждому переводу в порядке пакета")
+        List<TransferBatchItemResult> items
+) {}
@@ -0,0 +1,28 @@
+package com.example.bankcards.dto.card;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Запись истории переводов по карте")
+public record TransferHistoryItem(
+        @Schema(description = "ID перевода")
+        UUID id,
+
+        @Schema(description = "Направление относительно карты: IN - зачисление, OUT - списание")
+        TransferDirection direction,
+
+        @Schema(description = "ID карты списания")
+        UUID fromCardId,
+
+        @Schema(description = "ID карты зачисления")
+        UUID toCardId,
+
+        @Schema(description = "Сумма перевода")
+        BigDecimal amount,
+
+        @Schema(description = "Дата и время перевода")
+        LocalDateTime createdAt
+) {}
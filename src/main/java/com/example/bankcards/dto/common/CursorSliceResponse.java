@@ -0,0 +1,20 @@
+package com.example.bankcards.dto.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Срез результатов с курсорной (keyset) пагинацией, без общего количества")
+public record CursorSliceResponse<T>(
+        @Schema(description = "Элементы среза")
+        List<T> content,
+
+        @Schema(description = "Запрошенный размер среза", example = "20")
+        int size,
+
+        @Schema(description = "Есть ли следующий срез")
+        boolean hasNext,
+
+        @Schema(description = "Курсор следующего среза, передается как cursor в следующем запросе")
+        String nextCursor
+) {}
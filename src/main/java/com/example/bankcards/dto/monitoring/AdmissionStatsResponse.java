@@ -0,0 +1,30 @@
+package com.example.bankcards.dto.monitoring;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Состояние контроля допуска запросов к БД")
+public record AdmissionStatsResponse(
+        @Schema(description = "Включен ли контроль допуска (app.admission.enabled)")
+        boolean enabled,
+
+        @Schema(description = "Запросы обслуживаются виртуальными потоками (spring.threads.virtual.enabled)")
+        boolean virtualThreads,
+
+        @Schema(description = "Одновременно допускаемых запросов (по умолчанию - размер пула соединений)")
+        int permits,
+
+        @Schema(description = "Запросов выполняется сейчас")
+        int inFlight,
+
+        @Schema(description = "Запросов ждет допуска сейчас")
+        int queued,
+
+        @Schema(description = "Допущено всего")
+        long admitted,
+
+        @Schema(description = "Отклонено всего (503): очередь полна или истекло ожидание")
+        long rejected,
+
+        @Schema(description = "Из них - по истечении ожидания")
+        long timeouts
+) {}
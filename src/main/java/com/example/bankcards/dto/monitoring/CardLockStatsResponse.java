@@ -0,0 +1,45 @@
+package com.example.bankcards.dto.monitoring;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Состояние очереди блокировок карт перед переводами")
+public record CardLockStatsResponse(
+        @Schema(description = "Включена ли очередь блокировок (app.transfers.card-locks.enabled)")
+        boolean enabled,
+
+        @Schema(description = "Число полос (stripes)")
+        int stripes,
+
+        @Schema(description = "Потоков в очереди сейчас")
+        int queued,
+
+        @Schema(description = "Захватов блокировок всего")
+        long acquired,
+
+        @Schema(description = "Захватов, которым пришлось ждать")
+        long contended,
+
+        @Schema(description = "Отказов по таймауту ожидания")
+        long timeouts,
+
+        @Schema(description = "Среднее ожидание среди ждавших захватов, мс")
+        double avgWaitMs,
+
+        @Schema(description = "Максимальное ожидание, мс")
+        double maxWaitMs,
+
+        @Schema(description = "Карты, за которые сейчас ждут потоки, по убыванию числа ждущих")
+        List<HotCard> hotCards
+) {
+    @Schema(description = "Карта с очередью ожидания")
+    public record HotCard(
+            @Schema(description = "ID карты")
+            UUID cardId,
+
+            @Schema(description = "Потоков в ожидании")
+            int waiting
+    ) {}
+}
@@ -0,0 +1,61 @@
+package com.example.bankcards.dto.monitoring;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Медленный запрос: полное дерево спанов")
+public record SlowTraceResponse(
+        @Schema(description = "ID трассы")
+        String traceId,
+
+        @Schema(description = "Метод и шаблон пути запроса", example = "POST /api/transfers")
+        String name,
+
+        @Schema(description = "Начало запроса")
+        Instant startedAt,
+
+        @Schema(description = "Длительность запроса, мс")
+        double durationMs,
+
+        @Schema(description = "Корневой спан HTTP-запроса с вложенными спанами")
+        SpanNode root
+) {
+    @Schema(description = "Спан трассы")
+    public record SpanNode(
+            @Schema(description = "Имя спана", example = "CardsRepository.lockByIdAndOwnerId")
+            String name,
+
+            @Schema(description = "Смещение начала от начала запроса, мс")
+            double startMs,
+
+            @Schema(description = "Длительность, мс")
+            double durationMs,
+
+            @Schema(description = "Завершился ли спан ошибкой")
+            boolean error,
+
+            @Schema(description = "Атрибуты спана")
+            Map<String, String> attributes,
+
+            @Schema(description = "События внутри спана (например, ожидание очереди блокировок карт)")
+            List<SpanEvent> events,
+
+            @Schema(description = "Дочерние спаны по времени начала")
+            List<SpanNode> children
+    ) {}
+
+    @Schema(description = "Событие спана")
+    public record SpanEvent(
+            @Schema(description = "Имя события")
+            String name,
+
+            @Schema(description = "Смещение от начала запроса, мс")
+            double atMs,
+
+            @Schema(description = "Атрибуты события")
+            Map<String, String> attributes
+    ) {}
+}
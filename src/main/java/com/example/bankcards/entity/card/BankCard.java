@@ -12,18 +12,22 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Column;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Builder;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
 
+// UPDATE только по измененным колонкам: смена статуса или баланса не переписывает encrypted_card_number
 @Entity
+@DynamicUpdate
 @Table(name = "cards")
 @Getter
 @Setter
@@ -42,6 +46,9 @@ public class BankCard {
     @Column(name = "masked_card_number", nullable = false, length = 32)
     private String maskedCardNumber;
 
+    @Column(name = "pan_last4", nullable = false, length = 4)
+    private String panLast4;
+
     @Column(name = "expiration_date", nullable = false)
     private LocalDate expirationDate;
 
@@ -64,4 +71,8 @@ public class BankCard {
     @Builder.Default
     @Column(nullable = false)
     private boolean deleted = false;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,64 @@
+package com.example.bankcards.entity.card;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Результат перевода, сохраненный под ключом идемпотентности клиента.
+ */
+@Entity
+@Table(name = "transfer_idempotency")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferIdempotency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "from_card_id", nullable = false)
+    private UUID fromCardId;
+
+    @Column(name = "to_card_id", nullable = false)
+    private UUID toCardId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "transfer_id")
+    private UUID transferId;
+
+    @Column(name = "from_balance_after", precision = 19, scale = 2)
+    private BigDecimal fromBalanceAfter;
+
+    @Column(name = "to_balance_after", precision = 19, scale = 2)
+    private BigDecimal toBalanceAfter;
+
+    @Column(name = "transfer_created_at")
+    private LocalDateTime transferCreatedAt;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
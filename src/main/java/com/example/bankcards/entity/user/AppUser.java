@@ -13,15 +13,19 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+// UPDATE только по измененным колонкам (role, enabled, token_version), без перезаписи всей строки
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 @Getter
 @NoArgsConstructor
@@ -54,6 +58,14 @@ public class AppUser implements UserDetails {
     @Column(name = "account_non_locked", nullable = false)
     private boolean accountNonLocked = true;
 
+    // блокировка после серии неверных паролей, снимается сама по истечении
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Builder.Default
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion = 0;
+
     @Override
     public String getUsername() {
         return email;
@@ -67,7 +79,11 @@ public class AppUser implements UserDetails {
 
     public void setRole(UserRole role) { this.role = role; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public void setAccountNonLocked(boolean accountNonLocked) { this.accountNonLocked = accountNonLocked; }
+    public void lockUntil(LocalDateTime until) { this.lockedUntil = until; }
+    public void unlock() { this.accountNonLocked = true; this.lockedUntil = null; }
     public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+    public void bumpTokenVersion() { this.tokenVersion++; }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -76,9 +92,18 @@ public class AppUser implements UserDetails {
 
     @Override public boolean isAccountNonExpired() { return true; }
 
+    /** Для входа по паролю (DaoAuthenticationProvider): учитывает и временную блокировку после неудачных входов. */
     @Override
     public boolean isAccountNonLocked() {
-        return accountNonLocked;
+        return accountNonLocked && (lockedUntil == null || !lockedUntil.isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Для уже выданных токенов: отзывает только блокировка админом. Временную блокировку может вызвать
+     * любой, кто знает email, - она закрывает вход по паролю, но не действующие сессии.
+     */
+    public boolean isTokenAccessAllowed() {
+        return enabled && accountNonLocked;
     }
 
     @Override public boolean isCredentialsNonExpired() { return true; }
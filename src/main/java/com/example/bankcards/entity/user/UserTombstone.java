@@ -0,0 +1,31 @@
+package com.example.bankcards.entity.user;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Отметка об удаленном пользователе: его токены отклоняются на всех инстансах,
+ * пока не истечет срок жизни токена.
+ */
+@Entity
+@Table(name = "user_tombstones")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTombstone {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
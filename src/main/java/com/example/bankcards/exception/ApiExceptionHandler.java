@@ -1,17 +1,22 @@
 package com.example.bankcards.exception;
 
+import com.example.bankcards.metrics.BankMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Path;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -29,6 +34,13 @@ public class ApiExceptionHandler {
 
     private static final String MSG_VALIDATION = "Ошибка валидации";
     private static final String MSG_BAD_CREDENTIALS = "Неверный логин или пароль";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final MeterRegistry meterRegistry;
+
+    public ApiExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = BankMetrics.registryOrNoop(meterRegistry);
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> handleMethodArgumentNotValid(
@@ -116,6 +128,30 @@ public class ApiExceptionHandler {
         return build(HttpStatus.UNAUTHORIZED, MSG_BAD_CREDENTIALS, request, null, e, false);
     }
 
+    /**
+     * Тот же ответ, что и на неверный пароль: LockedException бывает только у существующей учетной записи,
+     * отдельный статус раскрыл бы, что email зарегистрирован и его блокируют подбором.
+     */
+    @ExceptionHandler(LockedException.class)
+    public ResponseEntity<ApiErrorResponse> handleLocked(
+            LockedException e,
+            HttpServletRequest request
+    ) {
+        return build(HttpStatus.UNAUTHORIZED, MSG_BAD_CREDENTIALS, request, null, e, false);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiErrorResponse> handleTooManyRequests(
+            TooManyRequestsException e,
+            HttpServletRequest request
+    ) {
+        ResponseEntity<ApiErrorResponse> response =
+                build(HttpStatus.TOO_MANY_REQUESTS, safeMsg(e, "Слишком много запросов"), request, null, e, false);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiErrorResponse> handleIllegalArgument(
             IllegalArgumentException e,
@@ -140,6 +176,18 @@ public class ApiExceptionHandler {
         return build(HttpStatus.CONFLICT, "Конфликт данных", request, null, e, false);
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiErrorResponse> handleOverloaded(
+            ServiceOverloadedException e,
+            HttpServletRequest request
+    ) {
+        ResponseEntity<ApiErrorResponse> response =
+                build(HttpStatus.SERVICE_UNAVAILABLE, safeMsg(e, "Сервис перегружен"), request, null, e, false);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleAny(
             Exception e,
@@ -156,6 +204,11 @@ public class ApiExceptionHandler {
             Exception e,
             boolean logAsError
     ) {
+        meterRegistry.counter(BankMetrics.API_ERRORS,
+                "status", String.valueOf(status.value()),
+                "exception", e.getClass().getSimpleName()
+        ).increment();
+
         if (logAsError) {
             log.error("API error {} {}: {}", status.value(), request.getRequestURI(), e.getMessage(), e);
         } else {
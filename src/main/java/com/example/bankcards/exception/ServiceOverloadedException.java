@@ -0,0 +1,11 @@
+package com.example.bankcards.exception;
+
+/**
+ * Запрос не принят из-за перегрузки (очередь допуска полна или истекло ожидание) - отвечаем 503.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.exception;
+
+/**
+ * Превышен лимит запросов (например, попыток входа) - отвечаем 429 с Retry-After.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
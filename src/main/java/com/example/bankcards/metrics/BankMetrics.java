@@ -0,0 +1,61 @@
+package com.example.bankcards.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Имена и теги метрик приложения. Все таймеры начинаются с "bank." - под этот префикс
+ * в application.yml настроены перцентили p50/p99 (management.metrics.distribution).
+ * Теги outcome (success/failure) и exception (простое имя класса, "none" при успехе)
+ * есть у каждого таймера; статус ответа по типу исключения пишет ApiExceptionHandler в bank.api.errors.
+ */
+public final class BankMetrics {
+
+    public static final String SERVICE = "bank.service";
+    public static final String CRYPTO = "bank.crypto";
+    public static final String TRANSFER_PHASE = "bank.transfer.phase";
+    public static final String AUTH_FILTER = "bank.auth.filter";
+    public static final String API_ERRORS = "bank.api.errors";
+    public static final String LOGIN_THROTTLED = "bank.auth.login.throttled";
+    public static final String LOGIN_LOCKED = "bank.auth.login.locked";
+
+    private BankMetrics() {
+    }
+
+    /** Реестр из контекста, а без actuator (например, в срезах @WebMvcTest) - пустой composite без записи. */
+    public static MeterRegistry registryOrNoop(ObjectProvider<MeterRegistry> registry) {
+        return registry.getIfAvailable(CompositeMeterRegistry::new);
+    }
+
+    public static Tags outcome(Throwable error) {
+        return (error == null)
+                ? Tags.of("outcome", "success", "exception", "none")
+                : Tags.of("outcome", "failure", "exception", error.getClass().getSimpleName());
+    }
+
+    public static void record(MeterRegistry registry, String name, Tags tags, long startNanos, Throwable error) {
+        Timer.builder(name)
+                .tags(tags.and(outcome(error)))
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static <T> T time(MeterRegistry registry, String name, Tags tags, Supplier<T> action) {
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return action.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            record(registry, name, tags, start, error);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Таймеры вокруг публичных методов сервисов (*ServiceImpl) и криптографии:
+ * шифрование и хэширование PAN, проверка и кодирование паролей (BCrypt).
+ * Аспект внешний по отношению к @Transactional - в bank.service входит и фиксация транзакции.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsAspect {
+
+    private final MeterRegistry registry;
+
+    public MetricsAspect(ObjectProvider<MeterRegistry> registry) {
+        this.registry = BankMetrics.registryOrNoop(registry);
+    }
+
+    @Around("execution(public * com.example.bankcards.service..*ServiceImpl.*(..))")
+    public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+        Tags tags = Tags.of(
+                "service", pjp.getSignature().getDeclaringType().getSimpleName(),
+                "method", pjp.getSignature().getName()
+        );
+        return proceed(pjp, BankMetrics.SERVICE, tags);
+    }
+
+    @Around("execution(public String com.example.bankcards.util.PanEncryptor.encrypt(String))")
+    public Object timePanEncrypt(ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(pjp, BankMetrics.CRYPTO, Tags.of("op", "pan.encrypt"));
+    }
+
+    @Around("execution(public String com.example.bankcards.util.PepperHashEncoder.sha256Hex(String))")
+    public Object timePanHash(ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(pjp, BankMetrics.CRYPTO, Tags.of("op", "pan.hash"));
+    }
+
+    @Around("execution(* org.springframework.security.crypto.password.PasswordEncoder+.matches(..))")
+    public Object timePasswordMatches(ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(pjp, BankMetrics.CRYPTO, Tags.of("op", "password.matches"));
+    }
+
+    @Around("execution(* org.springframework.security.crypto.password.PasswordEncoder+.encode(..))")
+    public Object timePasswordEncode(ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(pjp, BankMetrics.CRYPTO, Tags.of("op", "password.encode"));
+    }
+
+    private Object proceed(ProceedingJoinPoint pjp, String name, Tags tags) throws Throwable {
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            BankMetrics.record(registry, name, tags, start, error);
+        }
+    }
+}
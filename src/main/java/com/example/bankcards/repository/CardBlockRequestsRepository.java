@@ -2,11 +2,12 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.request.CardBlockRequest;
 import com.example.bankcards.entity.request.CardBlockStatus;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface CardBlockRequestsRepository extends JpaRepository<CardBlockRequest, UUID>,
@@ -14,5 +15,11 @@ public interface CardBlockRequestsRepository extends JpaRepository<CardBlockRequ
 
     boolean existsByCard_IdAndStatus(UUID cardId, CardBlockStatus status);
 
-    Page<CardBlockRequest> findAllByStatus(CardBlockStatus status, Pageable pageable);
+    // страницы без count(*) - total считается отдельно (PageCounter)
+    @Query("select r from CardBlockRequest r")
+    List<CardBlockRequest> findPage(Pageable pageable);
+
+    List<CardBlockRequest> findByStatus(CardBlockStatus status, Pageable pageable);
+
+    long countByStatus(CardBlockStatus status);
 }
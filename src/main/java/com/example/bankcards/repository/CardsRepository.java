@@ -1,24 +1,39 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.card.BankCard;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.repository.projection.TransferBalances;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CardsRepository extends JpaRepository<BankCard, UUID>, JpaSpecificationExecutor<BankCard> {
+public interface CardsRepository extends JpaRepository<BankCard, UUID>, JpaSpecificationExecutor<BankCard>,
+        CardsRepositoryCustom {
 
     boolean existsByPanHash(String panHash);
 
+    @Query("select c.panHash from BankCard c where c.panHash in :panHashes")
+    List<String> findExistingPanHashes(@Param("panHashes") Collection<String> panHashes);
+
     Optional<BankCard> findByIdAndDeletedFalse(UUID id);
 
     Optional<BankCard> findByIdAndOwnerIdAndDeletedFalse(UUID id, UUID ownerId);
 
+    boolean existsByIdAndOwnerIdAndDeletedFalse(UUID id, UUID ownerId);
+
     boolean existsByOwnerIdAndDeletedFalse(UUID ownerId);
 
     boolean existsByOwnerId(UUID ownerId);
@@ -32,4 +47,189 @@ public interface CardsRepository extends JpaRepository<BankCard, UUID>, JpaSpeci
            """)
     Optional<BankCard> lockByIdAndOwnerId(@Param("id") UUID id,
                                           @Param("ownerId") UUID ownerId);
+
+    /**
+     * Блокирует сразу несколько карт пользователя одним SELECT ... FOR UPDATE.
+     * Строки блокируются в порядке id, поэтому пакеты не взаимоблокируются друг с другом
+     * и с одиночными переводами.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           select c from BankCard c
+           where c.id in :ids
+             and c.owner.id = :ownerId
+             and c.deleted = false
+           order by c.id
+           """)
+    List<BankCard> lockAllByIdsAndOwnerId(@Param("ids") Collection<UUID> ids,
+                                          @Param("ownerId") UUID ownerId);
+
+    /**
+     * Чтение карт пользователя без блокировки - для оптимистичного перевода.
+     */
+    @Query("""
+           select new com.example.bankcards.repository.projection.CardBalanceView(
+                  c.id, c.balance, c.status, c.expirationDate, c.version)
+           from BankCard c
+           where c.id in :ids
+             and c.owner.id = :ownerId
+             and c.deleted = false
+           """)
+    List<CardBalanceView> findBalanceViews(@Param("ids") Collection<UUID> ids,
+                                           @Param("ownerId") UUID ownerId);
+
+    /**
+     * Условная запись баланса: 0 - версия уже изменилась (конкурентный перевод или правка карты).
+     */
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.balance = :balance, c.version = c.version + 1
+           where c.id = :id and c.version = :version
+           """)
+    int updateBalanceIfVersion(@Param("id") UUID id,
+                               @Param("version") long version,
+                               @Param("balance") BigDecimal balance);
+
+    /**
+     * Смена статуса без загрузки карты: пишутся только status и version, encrypted_card_number не трогается.
+     * 0 - карта не найдена или удалена.
+     */
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.status = :status, c.version = c.version + 1
+           where c.id = :id and c.deleted = false
+           """)
+    int updateStatus(@Param("id") UUID id, @Param("status") BankCardStatus status);
+
+    /**
+     * Мягкое удаление без загрузки карты. 0 - карта не найдена или уже удалена.
+     */
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.deleted = true,
+               c.status = com.example.bankcards.entity.card.BankCardStatus.BLOCKED,
+               c.version = c.version + 1
+           where c.id = :id and c.deleted = false
+           """)
+    int softDelete(@Param("id") UUID id);
+
+    /**
+     * Массовая блокировка чанка. Уже заблокированные и удаленные карты не трогаются и не считаются.
+     */
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.status = com.example.bankcards.entity.card.BankCardStatus.BLOCKED,
+               c.version = c.version + 1
+           where c.id in :ids
+             and c.deleted = false
+             and c.status <> com.example.bankcards.entity.card.BankCardStatus.BLOCKED
+           """)
+    int blockAllByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Массовая активация чанка: только заблокированные и непросроченные на today карты.
+     */
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.status = com.example.bankcards.entity.card.BankCardStatus.ACTIVE,
+               c.version = c.version + 1
+           where c.id in :ids
+             and c.deleted = false
+             and c.status = com.example.bankcards.entity.card.BankCardStatus.BLOCKED
+             and c.expirationDate >= :today
+           """)
+    int activateAllByIds(@Param("ids") Collection<UUID> ids, @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("""
+           update BankCard c
+           set c.deleted = true,
+               c.status = com.example.bankcards.entity.card.BankCardStatus.BLOCKED,
+               c.version = c.version + 1
+           where c.id in :ids and c.deleted = false
+           """)
+    int softDeleteAllByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Переводит в EXPIRED до limit карт с expiration_date < today. Строки, занятые переводом,
+     * пропускаются (skip locked) и достанутся следующему проходу. Возвращает число измененных карт.
+     */
+    @Modifying
+    @Query(value = """
+           update cards c
+           set status = 'EXPIRED', version = c.version + 1
+           where c.id in (
+               select e.id
+               from cards e
+               where e.expiration_date < :today
+                 and e.status <> 'EXPIRED'
+                 and e.deleted = false
+               order by e.expiration_date
+               limit :limit
+               for update skip locked
+           )
+           """, nativeQuery = true)
+    int expireBatch(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    /**
+     * Перевод одним оператором: обе строки блокируются в порядке id, списание проходит только
+     * при достаточном балансе и активных непросроченных картах, затем зачисление и запись в transfers_record.
+     * Срок действия сверяется с today из JVM, как в остальных стратегиях, а не с current_date БД.
+     * Пустой результат - условие не выполнено или карта не найдена, ничего не изменено.
+     */
+    @Query(value = """
+           with locked as (
+               select id, balance, status, expiration_date
+               from cards
+               where id in (:fromId, :toId)
+                 and user_id = :userId
+                 and deleted = false
+               order by id
+               for update
+           ),
+           debit as (
+               update cards c
+               set balance = c.balance - :amount, version = c.version + 1
+               from locked f
+               where c.id = f.id
+                 and f.id = :fromId
+                 and f.balance >= :amount
+                 and f.status = 'ACTIVE'
+                 and f.expiration_date >= :today
+                 and exists (
+                     select 1 from locked t
+                     where t.id = :toId
+                       and t.status = 'ACTIVE'
+                       and t.expiration_date >= :today
+                 )
+               returning c.balance
+           ),
+           credit as (
+               update cards c
+               set balance = c.balance + :amount, version = c.version + 1
+               from debit
+               where c.id = :toId
+               returning c.balance
+           ),
+           ledger as (
+               insert into transfers_record (id, from_card_id, to_card_id, amount, created_at)
+               select cast(:transferId as uuid), :fromId, :toId, :amount, :createdAt
+               from credit
+               returning id
+           )
+           select debit.balance as "fromBalance", credit.balance as "toBalance"
+           from debit, credit, ledger
+           """, nativeQuery = true)
+    Optional<TransferBalances> transferAtomically(@Param("userId") UUID userId,
+                                                  @Param("fromId") UUID fromId,
+                                                  @Param("toId") UUID toId,
+                                                  @Param("amount") BigDecimal amount,
+                                                  @Param("transferId") UUID transferId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("today") LocalDate today);
 }
@@ -0,0 +1,34 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.BankCard;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.projection.CardView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+public interface CardsRepositoryCustom {
+
+    Page<CardView> findViews(Specification<BankCard> spec, Pageable pageable);
+
+    /**
+     * Страница проекций с total из total вместо count(*) по spec.
+     */
+    Page<CardView> findViews(Specification<BankCard> spec, Pageable pageable, LongSupplier total);
+
+    /**
+     * Оценка планировщика для числа неудаленных карт по фильтрам поиска;
+     * условие статуса - то же, что CardsSpecifications.statusWithExpiration на дату today.
+     */
+    long estimateCount(UUID ownerId, BankCardStatus status, String last4, LocalDate today);
+
+    List<CardView> findViews(Specification<BankCard> spec, Sort sort, int limit);
+
+    List<UUID> findIds(Specification<BankCard> spec, int limit);
+}
@@ -0,0 +1,151 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.BankCard;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.projection.CardView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Списки карт через конструкторную проекцию: SELECT только нужных колонок,
+ * без сущностей в persistence context и без обращения к владельцу (берется user_id).
+ */
+class CardsRepositoryCustomImpl implements CardsRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final RowCountEstimator rowCountEstimator;
+
+    CardsRepositoryCustomImpl(RowCountEstimator rowCountEstimator) {
+        this.rowCountEstimator = rowCountEstimator;
+    }
+
+    @Override
+    public Page<CardView> findViews(Specification<BankCard> spec, Pageable pageable) {
+        return findViews(spec, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Page<CardView> findViews(Specification<BankCard> spec, Pageable pageable, LongSupplier total) {
+        TypedQuery<CardView> query = viewQuery(spec, pageable.getSort());
+
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, total);
+    }
+
+    /**
+     * Тот же фильтр, что у поиска: notDeleted, ownerId, statusWithExpiration и last4 из CardsSpecifications,
+     * иначе оценка считала бы не те строки (EXPIRED без истекших по дате, ACTIVE/BLOCKED вместе с ними).
+     */
+    @Override
+    public long estimateCount(UUID ownerId, BankCardStatus status, String last4, LocalDate today) {
+        StringBuilder sql = new StringBuilder("select 1 from cards where deleted = false");
+        List<Object> args = new ArrayList<>(4);
+        if (ownerId != null) {
+            sql.append(" and user_id = ?");
+            args.add(ownerId);
+        }
+        if (status == BankCardStatus.EXPIRED) {
+            sql.append(" and (status = ? or expiration_date < ?)");
+            args.add(status.name());
+            args.add(today);
+        } else if (status != null) {
+            sql.append(" and status = ? and expiration_date >= ?");
+            args.add(status.name());
+            args.add(today);
+        }
+        if (last4 != null) {
+            sql.append(" and pan_last4 = ?");
+            args.add(last4);
+        }
+        return rowCountEstimator.estimateQuery(sql.toString(), args.toArray());
+    }
+
+    @Override
+    public List<CardView> findViews(Specification<BankCard> spec, Sort sort, int limit) {
+        return viewQuery(spec, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Только id карт в порядке возрастания - для обхода по фильтру чанками.
+     */
+    @Override
+    public List<UUID> findIds(Specification<BankCard> spec, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<UUID> cq = cb.createQuery(UUID.class);
+        Root<BankCard> root = cq.from(BankCard.class);
+
+        cq.select(root.get("id"));
+
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+
+        cq.orderBy(cb.asc(root.get("id")));
+
+        return em.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private TypedQuery<CardView> viewQuery(Specification<BankCard> spec, Sort sort) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<CardView> cq = cb.createQuery(CardView.class);
+        Root<BankCard> root = cq.from(BankCard.class);
+
+        cq.select(cb.construct(
+                CardView.class,
+                root.get("id"),
+                root.get("maskedCardNumber"),
+                root.get("expirationDate"),
+                root.get("balance"),
+                root.get("status"),
+                root.get("owner").get("id")
+        ));
+
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+
+        if (sort.isSorted()) {
+            cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return em.createQuery(cq);
+    }
+
+    private long count(Specification<BankCard> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<BankCard> root = cq.from(BankCard.class);
+
+        cq.select(cb.count(root));
+
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) cq.where(predicate);
+
+        return em.createQuery(cq).getSingleResult();
+    }
+}
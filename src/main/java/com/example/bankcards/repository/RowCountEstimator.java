@@ -0,0 +1,41 @@
+package com.example.bankcards.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Оценки числа строк от планировщика PostgreSQL - вместо count(*) там, где точность не нужна.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Число строк таблицы по статистике (pg_class.reltuples). Для еще не проанализированной
+     * таблицы reltuples = -1 - тогда берется оценка плана полного чтения.
+     */
+    public long estimateTable(String table) {
+        Long rows = jdbcTemplate.queryForObject(
+                "select reltuples::bigint from pg_class where oid = to_regclass(?)", Long.class, table);
+        if (rows != null && rows >= 0) return rows;
+        return estimateQuery("select 1 from " + table);
+    }
+
+    /**
+     * Оценка числа строк запроса по EXPLAIN (Plan Rows корневого узла); сам запрос не выполняется.
+     */
+    public long estimateQuery(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("explain (format json) " + sql, String.class, args);
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong(0);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось разобрать план запроса", e);
+        }
+    }
+}
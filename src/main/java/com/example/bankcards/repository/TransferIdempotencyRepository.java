@@ -0,0 +1,73 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.card.TransferIdempotency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Репозиторий ключей идемпотентности переводов.
+ */
+public interface TransferIdempotencyRepository extends JpaRepository<TransferIdempotency, UUID> {
+
+    Optional<TransferIdempotency> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    /**
+     * Занимает ключ в текущей транзакции. Возвращает 0, если ключ уже занят:
+     * при конкурентном дубле INSERT ждет фиксации первой транзакции и только потом видит конфликт.
+     */
+    @Modifying
+    @Query(value = """
+           insert into transfer_idempotency (id, user_id, idempotency_key, from_card_id, to_card_id, amount)
+           values (:id, :userId, :idempotencyKey, :fromCardId, :toCardId, :amount)
+           on conflict (user_id, idempotency_key) do nothing
+           """, nativeQuery = true)
+    int claim(@Param("id") UUID id,
+              @Param("userId") UUID userId,
+              @Param("idempotencyKey") String idempotencyKey,
+              @Param("fromCardId") UUID fromCardId,
+              @Param("toCardId") UUID toCardId,
+              @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("""
+           update TransferIdempotency t
+              set t.transferId = :transferId,
+                  t.fromBalanceAfter = :fromBalanceAfter,
+                  t.toBalanceAfter = :toBalanceAfter,
+                  t.transferCreatedAt = :transferCreatedAt
+            where t.userId = :userId
+              and t.idempotencyKey = :idempotencyKey
+           """)
+    int complete(@Param("userId") UUID userId,
+                 @Param("idempotencyKey") String idempotencyKey,
+                 @Param("transferId") UUID transferId,
+                 @Param("fromBalanceAfter") BigDecimal fromBalanceAfter,
+                 @Param("toBalanceAfter") BigDecimal toBalanceAfter,
+                 @Param("transferCreatedAt") LocalDateTime transferCreatedAt);
+
+    /**
+     * Удаляет до limit ключей старше retentionHours. Граница считается часами БД: localtimestamp - это
+     * CURRENT_TIMESTAMP без пояса, как он записывается в created_at, поэтому пояс JVM на срок хранения не влияет.
+     * Строки, занятые незавершенным переводом, пропускаются (skip locked). Возвращает число удаленных строк.
+     */
+    @Modifying
+    @Query(value = """
+           delete from transfer_idempotency t
+           where t.id in (
+               select e.id
+               from transfer_idempotency e
+               where e.created_at < localtimestamp - make_interval(hours => :retentionHours)
+               order by e.created_at
+               limit :limit
+               for update skip locked
+           )
+           """, nativeQuery = true)
+    int purgeBatch(@Param("retentionHours") int retentionHours, @Param("limit") int limit);
+}
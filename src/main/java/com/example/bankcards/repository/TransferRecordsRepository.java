@@ -1,12 +1,61 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.card.TransferRecord;
+import com.example.bankcards.repository.projection.TransferView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Репозиторий записей о переводах.
  */
 public interface TransferRecordsRepository extends JpaRepository<TransferRecord, UUID> {
+
+    /**
+     * Списания с карты в окне [from, to) строго раньше позиции (createdAt, id), новые первыми.
+     * Явные границы по createdAt нужны для отсечения секций: по row-value сравнению PostgreSQL их не отсекает.
+     * Внутри секции идет по индексу ix_transfers_from_card_created.
+     */
+    @Query("""
+           select new com.example.bankcards.repository.projection.TransferView(
+                  t.id, t.fromCard.id, t.toCard.id, t.amount, t.createdAt)
+           from TransferRecord t
+           where t.fromCard.id = :cardId
+             and t.createdAt >= :from and t.createdAt < :to
+             and t.createdAt <= :createdAt
+             and (t.createdAt, t.id) < (:createdAt, :id)
+           order by t.createdAt desc, t.id desc
+           """)
+    List<TransferView> findOutgoingBefore(@Param("cardId") UUID cardId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") UUID id,
+                                          Limit limit);
+
+    /**
+     * Зачисления на карту в окне [from, to) строго раньше позиции (createdAt, id), новые первыми.
+     * Внутри секции идет по индексу ix_transfers_to_card_created.
+     */
+    @Query("""
+           select new com.example.bankcards.repository.projection.TransferView(
+                  t.id, t.fromCard.id, t.toCard.id, t.amount, t.createdAt)
+           from TransferRecord t
+           where t.toCard.id = :cardId
+             and t.createdAt >= :from and t.createdAt < :to
+             and t.createdAt <= :createdAt
+             and (t.createdAt, t.id) < (:createdAt, :id)
+           order by t.createdAt desc, t.id desc
+           """)
+    List<TransferView> findIncomingBefore(@Param("cardId") UUID cardId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") UUID id,
+                                          Limit limit);
 }
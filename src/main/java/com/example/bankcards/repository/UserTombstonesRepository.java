@@ -0,0 +1,26 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.user.UserTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Отметки об удаленных пользователях для отзыва их токенов в stateless-режиме.
+ */
+public interface UserTombstonesRepository extends JpaRepository<UserTombstone, UUID> {
+
+    @Query("select t.userId from UserTombstone t where t.deletedAt >= :since")
+    List<UUID> findUserIdsDeletedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -1,10 +1,15 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.repository.projection.UserTokenState;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +20,34 @@ public interface UsersRepository extends JpaRepository<AppUser, UUID> {
 
     @Query("select u from AppUser u where lower(u.email) = lower(:email)")
     Optional<AppUser> findByEmailLower(@Param("email") String email);
+
+    /**
+     * Страница пользователей без count(*) - total считается отдельно (PageCounter).
+     */
+    @Query("select u from AppUser u")
+    List<AppUser> findPage(Pageable pageable);
+
+    /**
+     * Пересчитанный при входе хэш пароля. token_version не меняется - выданные токены остаются действительными.
+     */
+    @Modifying
+    @Query("update AppUser u set u.passwordHash = :passwordHash where u.id = :id")
+    int updatePasswordHash(@Param("id") UUID id, @Param("passwordHash") String passwordHash);
+
+    @Query("select u.id from AppUser u where u.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Только пользователи, чьи токены могут быть отозваны: с увеличенной версией, отключенные или заблокированные админом.
+     * Временная блокировка после неудачных входов (locked_until) токены не отзывает.
+     */
+    @Query("""
+           select new com.example.bankcards.repository.projection.UserTokenState(
+                  u.id, u.tokenVersion, u.enabled, u.accountNonLocked)
+           from AppUser u
+           where u.tokenVersion > 0
+              or u.enabled = false
+              or u.accountNonLocked = false
+           """)
+    List<UserTokenState> findTokenRevocationStates();
 }
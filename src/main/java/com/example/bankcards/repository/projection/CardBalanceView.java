@@ -0,0 +1,19 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.BankCardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Состояние карты для оптимистичного перевода: читается без блокировки,
+ * version затем проверяется в условном UPDATE.
+ */
+public record CardBalanceView(
+        UUID id,
+        BigDecimal balance,
+        BankCardStatus status,
+        LocalDate expirationDate,
+        long version
+) {}
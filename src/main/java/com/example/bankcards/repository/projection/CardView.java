@@ -0,0 +1,20 @@
+package com.example.bankcards.repository.projection;
+
+import com.example.bankcards.entity.card.BankCardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Проекция карты для списков: только поля ответа, без зашифрованного номера,
+ * хэша и загрузки владельца. Статус хранимый, эффективный считается при маппинге.
+ */
+public record CardView(
+        UUID id,
+        String maskedCardNumber,
+        LocalDate expirationDate,
+        BigDecimal balance,
+        BankCardStatus status,
+        UUID ownerId
+) {}
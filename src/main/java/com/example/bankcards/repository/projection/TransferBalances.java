@@ -0,0 +1,12 @@
+package com.example.bankcards.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Балансы обеих карт после атомарного перевода (нативный запрос, поэтому интерфейсная проекция).
+ */
+public interface TransferBalances {
+    BigDecimal getFromBalance();
+
+    BigDecimal getToBalance();
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Строка истории переводов: только колонки transfers_record, связи fromCard/toCard не загружаются.
+ */
+public record TransferView(
+        UUID id,
+        UUID fromCardId,
+        UUID toCardId,
+        BigDecimal amount,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,8 @@
+package com.example.bankcards.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Состояние пользователя, влияющее на принятие уже выданных JWT.
+ */
+public record UserTokenState(UUID id, long tokenVersion, boolean enabled, boolean accountNonLocked) {}
@@ -0,0 +1,144 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt на отдельном ограниченном пуле: одновременно хэшируют не больше threads потоков,
+ * еще queueCapacity ждут в очереди, остальные сразу получают 503 (ServiceOverloadedException).
+ * Всплеск логинов так занимает не больше threads ядер и threads + queueCapacity потоков запросов.
+ * upgradeEncoding - хэш с меньшей стоимостью пересчитывается при успешном входе
+ * (DaoAuthenticationProvider + UserDetailsPasswordService). Более сильный хэш не понижается:
+ * инстансы с разной стоимостью иначе переписывали бы хэши друг друга при каждом входе.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final String CALIBRATION_PASSWORD = "bcrypt-calibration";
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity) {
+        if (threads <= 0) {
+            throw new IllegalStateException("Число потоков хэширования паролей должно быть > 0");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalStateException("Очередь хэширования паролей должна быть > 0");
+        }
+        this.delegate = delegate;
+        this.strength = strength;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreads(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost < strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Слишком много одновременных проверок пароля, повторите позже");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Проверка пароля прервана");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+
+    /** Стоимость из хэша вида $2a$10$..., 0 - не BCrypt. */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) return 0;
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+    }
+
+    /**
+     * Наибольшая стоимость из [minStrength, maxStrength], при которой один хэш на этой машине
+     * занимает не дольше targetMs. Каждый шаг стоимости удваивает время, поэтому перебор
+     * останавливается на первом превышении; minStrength возвращается, даже если она медленнее цели.
+     */
+    public static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        // прогрев JIT, чтобы первый замер не завысил время
+        new BCryptPasswordEncoder(4).encode(CALIBRATION_PASSWORD);
+
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= maxStrength; cost++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMs > targetMs) break;
+            chosen = cost;
+        }
+        return chosen;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
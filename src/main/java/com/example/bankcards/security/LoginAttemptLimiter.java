@@ -0,0 +1,139 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.metrics.BankMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение попыток входа внутри JVM, до запроса пользователя в БД и проверки BCrypt.
+ * Попытки считаются в скользящем окне window-ms отдельно по IP клиента и по нормализованному email;
+ * сверх лимита - 429 (TooManyRequestsException), отклоненная попытка в счет не идет.
+ * Неудачные пароли по email считаются в окне lock-window-ms: на lock-threshold вызывающий
+ * блокирует учетную запись на тот же lock-window-ms (users.locked_until), досрочно снимает админ.
+ * Счетчики у каждого инстанса свои, общий лимит кластера - лимит, умноженный на число инстансов.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final String MSG_TOO_MANY = "Слишком много попыток входа, повторите позже";
+
+    private final boolean enabled;
+    private final int maxAttemptsPerIp;
+    private final int maxAttemptsPerEmail;
+    private final int lockThreshold;
+    private final Duration lockDuration;
+    private final SlidingWindowCounter attemptsByIp;
+    private final SlidingWindowCounter attemptsByEmail;
+    private final SlidingWindowCounter failuresByEmail;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LoginAttemptLimiter(
+            @Value("${app.security.login.enabled:true}") boolean enabled,
+            @Value("${app.security.login.window-ms:60000}") long windowMs,
+            @Value("${app.security.login.max-attempts-per-ip:30}") int maxAttemptsPerIp,
+            @Value("${app.security.login.max-attempts-per-email:10}") int maxAttemptsPerEmail,
+            @Value("${app.security.login.lock-threshold:20}") int lockThreshold,
+            @Value("${app.security.login.lock-window-ms:900000}") long lockWindowMs,
+            @Value("${app.security.login.stripes:64}") int stripes,
+            @Value("${app.security.login.max-keys:100000}") int maxKeys,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        this(enabled, windowMs, maxAttemptsPerIp, maxAttemptsPerEmail, lockThreshold, lockWindowMs, stripes, maxKeys,
+                BankMetrics.registryOrNoop(meterRegistry), System::currentTimeMillis);
+    }
+
+    LoginAttemptLimiter(boolean enabled, long windowMs, int maxAttemptsPerIp, int maxAttemptsPerEmail,
+                        int lockThreshold, long lockWindowMs, int stripes, int maxKeys,
+                        MeterRegistry meterRegistry, LongSupplier clock) {
+        if (windowMs <= 0) {
+            throw new IllegalStateException("app.security.login.window-ms должен быть > 0");
+        }
+        if (maxAttemptsPerIp <= 0) {
+            throw new IllegalStateException("app.security.login.max-attempts-per-ip должен быть > 0");
+        }
+        if (maxAttemptsPerEmail <= 0) {
+            throw new IllegalStateException("app.security.login.max-attempts-per-email должен быть > 0");
+        }
+        if (lockThreshold <= 0) {
+            throw new IllegalStateException("app.security.login.lock-threshold должен быть > 0");
+        }
+        if (lockWindowMs <= 0) {
+            throw new IllegalStateException("app.security.login.lock-window-ms должен быть > 0");
+        }
+        if (stripes <= 0) {
+            throw new IllegalStateException("app.security.login.stripes должен быть > 0");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalStateException("app.security.login.max-keys должен быть > 0");
+        }
+        this.enabled = enabled;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.lockThreshold = lockThreshold;
+        this.lockDuration = Duration.ofMillis(lockWindowMs);
+        this.attemptsByIp = new SlidingWindowCounter(stripes, maxKeys, windowMs);
+        this.attemptsByEmail = new SlidingWindowCounter(stripes, maxKeys, windowMs);
+        this.failuresByEmail = new SlidingWindowCounter(stripes, maxKeys, lockWindowMs);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Засчитывает попытку входа с clientIp на email (уже нормализованный).
+     * Сверх лимита по IP или по email - TooManyRequestsException.
+     */
+    public void acquire(String clientIp, String email) {
+        if (!enabled) return;
+        long now = clock.getAsLong();
+
+        if (clientIp != null && !attemptsByIp.tryAcquire(clientIp, maxAttemptsPerIp, now)) {
+            throw reject("ip", attemptsByIp, now);
+        }
+        if (!attemptsByEmail.tryAcquire(email, maxAttemptsPerEmail, now)) {
+            throw reject("email", attemptsByEmail, now);
+        }
+    }
+
+    /** Неверный пароль для email; true - набран порог, учетную запись нужно заблокировать. */
+    public boolean recordFailure(String email) {
+        if (!enabled) return false;
+
+        if (failuresByEmail.increment(email, clock.getAsLong()) < lockThreshold) return false;
+
+        // счет начинается заново, чтобы следующая блокировка (после разблокировки) потребовала новых неудач
+        failuresByEmail.reset(email);
+        meterRegistry.counter(BankMetrics.LOGIN_LOCKED).increment();
+        return true;
+    }
+
+    /** На сколько блокировать учетную запись, набравшую порог неудач. */
+    public Duration lockDuration() {
+        return lockDuration;
+    }
+
+    /** Успешный вход сбрасывает счетчики email, счетчик IP остается (за NAT это много пользователей). */
+    public void recordSuccess(String email) {
+        if (!enabled) return;
+        attemptsByEmail.reset(email);
+        failuresByEmail.reset(email);
+    }
+
+    int trackedKeys() {
+        return attemptsByIp.size() + attemptsByEmail.size() + failuresByEmail.size();
+    }
+
+    private TooManyRequestsException reject(String key, SlidingWindowCounter counter, long now) {
+        meterRegistry.counter(BankMetrics.LOGIN_THROTTLED, "key", key).increment();
+        long retryAfterSeconds = Math.max(1, (counter.millisToNextBucket(now) + 999) / 1000);
+        return new TooManyRequestsException(MSG_TOO_MANY, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.util.EmailNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Кэш аутентифицированных пользователей для JwtAuthFilter, ключ - нормализованный email.
+ * Запись живет не дольше ttl и сбрасывается после коммита изменений пользователя
+ * (UserSecurityChangedEvent). Сверх max-size вытесняется давно не использованная запись (LRU),
+ * загрузка пользователя идет вне блокировки. Если за время загрузки был сброс (evict), загруженный
+ * пользователь мог быть прочитан до изменения - он возвращается, но в кэш не кладется.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final int maxSize;
+    // счетчик сбросов, под блокировкой entries
+    private long evictions;
+
+    public PrincipalCache(
+            @Value("${app.security.principal-cache.ttl-ms:60000}") long ttlMs,
+            @Value("${app.security.principal-cache.max-size:10000}") int maxSize
+    ) {
+        if (ttlMs < 0) {
+            throw new IllegalStateException("app.security.principal-cache.ttl-ms должен быть >= 0");
+        }
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        String key = EmailNormalizer.normalize(username);
+        long now = System.nanoTime();
+
+        Entry cached;
+        long evictionsBefore;
+        synchronized (entries) {
+            cached = entries.get(key);
+            evictionsBefore = evictions;
+        }
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.user();
+        }
+
+        UserDetails user = loader.apply(key);
+        if (ttlNanos > 0 && maxSize > 0) {
+            synchronized (entries) {
+                if (evictions == evictionsBefore) {
+                    entries.put(key, new Entry(user, now));
+                }
+            }
+        }
+        return user;
+    }
+
+    public void evict(String email) {
+        if (email == null) return;
+        String key = EmailNormalizer.normalize(email);
+        synchronized (entries) {
+            entries.remove(key);
+            evictions++;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        evict(event.email());
+    }
+
+    private record Entry(UserDetails user, long loadedAt) {}
+}
@@ -0,0 +1,125 @@
+package com.example.bankcards.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Число событий по ключу за последние windowMs - приближение двумя корзинами:
+ * текущая корзина плюс предыдущая с весом еще не истекшей доли окна.
+ * На ключ - один объект из трех полей, который переиспользуется при смене корзины.
+ * Ключи разложены по полосам (stripes), каждая - LinkedHashMap в порядке доступа под своим монитором;
+ * сверх maxKeys / stripes ключей в полосе вытесняется давно не использованный, так что память
+ * ограничена при любом числе ключей (вытесненный ключ начинает счет заново).
+ */
+final class SlidingWindowCounter {
+
+    private final Stripe[] stripes;
+    private final long windowMs;
+
+    SlidingWindowCounter(int stripes, int maxKeys, long windowMs) {
+        int perStripe = Math.max(1, (maxKeys + stripes - 1) / stripes);
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+        this.windowMs = windowMs;
+    }
+
+    /** Засчитывает событие, если оценка за окно меньше limit; иначе ничего не меняет и возвращает false. */
+    boolean tryAcquire(String key, int limit, long nowMs) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Window window = stripe.get(key);
+            if (window == null) {
+                window = new Window();
+                stripe.put(key, window);
+            } else if (window.estimate(nowMs, windowMs) >= limit) {
+                return false;
+            }
+            window.add(nowMs, windowMs);
+            return true;
+        }
+    }
+
+    /** Засчитывает событие и возвращает оценку за окно с его учетом. */
+    int increment(String key, long nowMs) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Window window = stripe.get(key);
+            if (window == null) {
+                window = new Window();
+                stripe.put(key, window);
+            }
+            window.add(nowMs, windowMs);
+            return window.estimate(nowMs, windowMs);
+        }
+    }
+
+    void reset(String key) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /** Сколько мс до следующей корзины - после нее вклад текущих событий начинает убывать. */
+    long millisToNextBucket(long nowMs) {
+        return windowMs - Math.floorMod(nowMs, windowMs);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(String key) {
+        int h = key.hashCode();
+        return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Window> {
+
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+            return size() > maxKeys;
+        }
+    }
+
+    private static final class Window {
+
+        private long bucketStart;
+        private int current;
+        private int previous;
+
+        void add(long nowMs, long windowMs) {
+            roll(nowMs, windowMs);
+            current++;
+        }
+
+        int estimate(long nowMs, long windowMs) {
+            roll(nowMs, windowMs);
+            long remaining = windowMs - (nowMs - bucketStart);
+            return current + (int) (previous * remaining / windowMs);
+        }
+
+        private void roll(long nowMs, long windowMs) {
+            long bucket = nowMs - Math.floorMod(nowMs, windowMs);
+            if (bucket == bucketStart) return;
+            previous = (bucket - bucketStart == windowMs) ? current : 0;
+            current = 0;
+            bucketStart = bucket;
+        }
+    }
+}
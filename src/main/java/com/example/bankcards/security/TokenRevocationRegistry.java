@@ -0,0 +1,109 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.UserTombstonesRepository;
+import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.repository.projection.UserTokenState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Минимальная принимаемая версия токена по пользователям - для stateless-режима JwtAuthFilter.
+ * Хранит только пользователей с увеличенной версией, отключенных, заблокированных или удаленных;
+ * остальные принимаются с любой версией. Снимок перечитывается из БД по расписанию,
+ * изменения на этом инстансе применяются сразу после коммита.
+ * Удаленные пользователи берутся из user_tombstones за срок жизни токена: строки users у них уже нет,
+ * а отметка пишется в той же транзакции, что и удаление, поэтому ее видят все инстансы.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+    private static final Duration TOMBSTONE_PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final UsersRepository usersRepository;
+    private final UserTombstonesRepository tombstonesRepository;
+    private final boolean stateless;
+    private final Duration tokenTtl;
+
+    private volatile Map<UUID, Long> minVersions = Map.of();
+    private final Map<UUID, Long> localChanges = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private LocalDateTime lastPurge = LocalDateTime.MIN;
+
+    public TokenRevocationRegistry(
+            UsersRepository usersRepository,
+            UserTombstonesRepository tombstonesRepository,
+            @Value("${app.security.jwt.stateless:false}") boolean stateless,
+            @Value("${jwt.expiration}") long tokenTtlMs
+    ) {
+        this.usersRepository = usersRepository;
+        this.tombstonesRepository = tombstonesRepository;
+        this.stateless = stateless;
+        this.tokenTtl = Duration.ofMillis(tokenTtlMs);
+    }
+
+    /**
+     * До первой загрузки снимка реестр не готов, и фильтр проверяет пользователя по БД.
+     * Вне stateless-режима снимок не загружается вовсе.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isAccepted(UUID userId, long tokenVersion) {
+        Long local = localChanges.get(userId);
+        Long min = (local != null) ? local : minVersions.get(userId);
+        return min == null || tokenVersion >= min;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.security.jwt.revocation-refresh-initial-delay-ms:0}",
+            fixedDelayString = "${app.security.jwt.revocation-refresh-ms:30000}"
+    )
+    public void refresh() {
+        if (!stateless) return;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Map<UUID, Long> appliedLocally = Map.copyOf(localChanges);
+            Map<UUID, Long> snapshot = new HashMap<>();
+            for (UserTokenState s : usersRepository.findTokenRevocationStates()) {
+                boolean revoked = !s.enabled() || !s.accountNonLocked();
+                snapshot.put(s.id(), revoked ? REVOKED : s.tokenVersion());
+            }
+            // токены, выданные до удаления, истекают не позже чем через tokenTtl
+            for (UUID deletedId : tombstonesRepository.findUserIdsDeletedSince(now.minus(tokenTtl))) {
+                snapshot.put(deletedId, REVOKED);
+            }
+            minVersions = Map.copyOf(snapshot);
+            appliedLocally.forEach(localChanges::remove);
+            ready = true;
+
+            purgeTombstones(now);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить реестр отозванных токенов", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        boolean revoked = event.revoked() || event.deleted();
+        localChanges.put(event.userId(), revoked ? REVOKED : event.tokenVersion());
+    }
+
+    private void purgeTombstones(LocalDateTime now) {
+        if (lastPurge.plus(TOMBSTONE_PURGE_INTERVAL).isAfter(now)) return;
+        lastPurge = now;
+        tombstonesRepository.deleteOlderThan(now.minus(tokenTtl));
+    }
+}
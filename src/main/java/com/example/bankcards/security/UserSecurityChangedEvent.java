@@ -0,0 +1,9 @@
+package com.example.bankcards.security;
+
+import java.util.UUID;
+
+/**
+ * Изменились данные пользователя, влияющие на аутентификацию (роль, enabled, пароль, удаление).
+ * revoked - пользователь отключен или заблокирован, deleted - удален: его токены больше не принимаются.
+ */
+public record UserSecurityChangedEvent(UUID userId, String email, long tokenVersion, boolean revoked, boolean deleted) {}
@@ -1,12 +1,24 @@
 package com.example.bankcards.security.filter;
 
+import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.metrics.BankMetrics;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.service.auth.JwtService;
+import com.example.bankcards.service.auth.ParsedToken;
+import com.example.bankcards.tracing.BankTracing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,13 +29,36 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final boolean stateless;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    public JwtAuthFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            PrincipalCache principalCache,
+            TokenRevocationRegistry revocationRegistry,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<Tracer> tracer,
+            @Value("${app.security.jwt.stateless:false}") boolean stateless
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.stateless = stateless;
+        this.meterRegistry = BankMetrics.registryOrNoop(meterRegistry);
+        this.tracer = BankTracing.tracerOrNoop(tracer);
+    }
 
     @Override
     protected void doFilterInternal(
@@ -38,31 +73,89 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        String token = header.substring(7);
-        String username;
+        Span span = tracer.spanBuilder("jwt.auth").startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            authenticate(request, header.substring(7));
+        } catch (RuntimeException e) {
+            BankTracing.markError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /** В bank.auth.filter и спан jwt.auth - только разбор токена и поиск пользователя, без остальной цепочки. */
+    private void authenticate(HttpServletRequest request, String token) {
+        long start = System.nanoTime();
+        ParsedToken parsed;
         try {
-            username = jwtService.extractUsername(token);
+            parsed = jwtService.parseToken(token);
         } catch (Exception e) {
-            filterChain.doFilter(request, response);
+            BankMetrics.record(meterRegistry, BankMetrics.AUTH_FILTER, Tags.of("result", "invalid"), start, e);
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails user = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, user)) {
-                var auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
+        boolean authenticated = false;
+        try {
+            String username = parsed.username();
+            if (username != null && !parsed.isExpired(Instant.now())
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails user = resolveUser(parsed);
+                if (user != null) {
+                    var auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                    authenticated = true;
+                }
             }
+        } catch (RuntimeException e) {
+            BankMetrics.record(meterRegistry, BankMetrics.AUTH_FILTER, Tags.of("result", "rejected"), start, e);
+            throw e;
         }
+        BankMetrics.record(meterRegistry, BankMetrics.AUTH_FILTER,
+                Tags.of("result", authenticated ? "authenticated" : "rejected"), start, null);
+    }
 
-        filterChain.doFilter(request, response);
+    /**
+     * В stateless-режиме пользователь собирается из проверенных claims без обращения к БД,
+     * отзыв - через TokenRevocationRegistry. Иначе (или для токенов без claims) - из кэша/БД.
+     */
+    private UserDetails resolveUser(ParsedToken parsed) {
+        if (stateless && parsed.hasStatelessClaims() && revocationRegistry.isReady()) {
+            if (!revocationRegistry.isAccepted(parsed.userId(), parsed.tokenVersion())) return null;
+
+            return AppUser.builder()
+                    .id(parsed.userId())
+                    .email(parsed.username())
+                    .role(parsed.role())
+                    .tokenVersion(parsed.tokenVersion())
+                    .build();
+        }
+
+        UserDetails user = principalCache.get(parsed.username(), userDetailsService::loadUserByUsername);
+        if (!user.getUsername().equals(parsed.username()) || !isTokenAccessAllowed(user)) {
+            return null;
+        }
+        if (parsed.tokenVersion() != null && user instanceof AppUser appUser
+                && parsed.tokenVersion() < appUser.getTokenVersion()) {
+            return null;
+        }
+        return user;
+    }
+
+    /** Временная блокировка после неудачных входов (AppUser.lockedUntil) действующие токены не отзывает. */
+    private static boolean isTokenAccessAllowed(UserDetails user) {
+        if (user instanceof AppUser appUser) return appUser.isTokenAccessAllowed();
+        return user.isEnabled() && user.isAccountNonLocked();
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String p = request.getServletPath();
         return p.startsWith("/v3/api-docs")
+                || p.startsWith("/actuator/")
                 || p.startsWith("/swagger-ui")
                 || p.equals("/swagger-ui.html");
     }
@@ -4,5 +4,6 @@ import com.example.bankcards.dto.auth.JwtResponse;
 import com.example.bankcards.dto.auth.LoginRequest;
 
 public interface AuthService {
-    JwtResponse login(LoginRequest request);
+    /** clientIp - адрес клиента для лимита попыток входа, null - лимит только по email. */
+    JwtResponse login(LoginRequest request, String clientIp);
 }
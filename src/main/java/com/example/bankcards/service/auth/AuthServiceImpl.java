@@ -2,9 +2,14 @@ package com.example.bankcards.service.auth;
 
 import com.example.bankcards.dto.auth.JwtResponse;
 import com.example.bankcards.dto.auth.LoginRequest;
+import com.example.bankcards.security.LoginAttemptLimiter;
+import com.example.bankcards.service.user.UsersService;
+import com.example.bankcards.util.EmailNormalizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,14 +18,32 @@ public class AuthServiceImpl implements AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final UsersService usersService;
 
+    /**
+     * Лимит попыток проверяется до authenticate: отклоненная попытка не идет ни в БД, ни в BCrypt.
+     * Заблокированная учетная запись отсекается DaoAuthenticationProvider до проверки пароля (LockedException,
+     * ответ тот же 401, что и на неверный пароль); блокировка снимается сама через lockDuration.
+     */
     @Override
-    public JwtResponse login(LoginRequest request) {
-        var authToken = new UsernamePasswordAuthenticationToken(request.email(), request.password());
-        var auth = authenticationManager.authenticate(authToken);
+    public JwtResponse login(LoginRequest request, String clientIp) {
+        String email = EmailNormalizer.normalize(request.email());
+        loginAttemptLimiter.acquire(clientIp, email);
+
+        var authToken = new UsernamePasswordAuthenticationToken(email, request.password());
+        Authentication auth;
+        try {
+            auth = authenticationManager.authenticate(authToken);
+        } catch (BadCredentialsException e) {
+            if (loginAttemptLimiter.recordFailure(email)) {
+                usersService.lockAfterFailedLogins(email, loginAttemptLimiter.lockDuration());
+            }
+            throw e;
+        }
+        loginAttemptLimiter.recordSuccess(email);
 
         var principal = (org.springframework.security.core.userdetails.UserDetails) auth.getPrincipal();
         return new JwtResponse(jwtService.issueToken(principal));
     }
 }
-
@@ -6,4 +6,5 @@ public interface JwtService {
     String issueToken(UserDetails user);
     String extractUsername(String token);
     boolean isTokenValid(String token, UserDetails user);
+    ParsedToken parseToken(String token);
 }
@@ -1,28 +1,50 @@
 package com.example.bankcards.service.auth;
 
+import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.entity.user.UserRole;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
     private static final int MIN_HS256_KEY_BYTES = 32;
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    static final int DEFAULT_PARSE_CACHE_SIZE = 10_000;
+
     private final SecretKey key;
     private final long expirationMs;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtServiceImpl(String jwtSecret, long expirationMs) {
+        this(jwtSecret, expirationMs, DEFAULT_PARSE_CACHE_SIZE);
+    }
 
+    @Autowired
     public JwtServiceImpl(
             @Value("${jwt.secret}") String jwtSecret,
-            @Value("${jwt.expiration}") long expirationMs
+            @Value("${jwt.expiration}") long expirationMs,
+            @Value("${jwt.parse-cache-size:" + DEFAULT_PARSE_CACHE_SIZE + "}") int parseCacheSize
     ) {
         byte[] keyBytes = parseSecret(jwtSecret);
 
@@ -35,6 +57,8 @@ public class JwtServiceImpl implements JwtService {
 
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = new VerifiedTokenCache(parseCacheSize);
     }
 
     static byte[] parseSecret(String secret) {
@@ -73,10 +97,18 @@ public class JwtServiceImpl implements JwtService {
         Date now = new Date();
         Date exp = new Date(now.getTime() + expirationMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(user.getUsername())
                 .issuedAt(now)
-                .expiration(exp)
+                .expiration(exp);
+
+        if (user instanceof AppUser appUser) {
+            builder.claim(CLAIM_USER_ID, appUser.getId().toString())
+                    .claim(CLAIM_ROLE, appUser.getRole().name())
+                    .claim(CLAIM_TOKEN_VERSION, appUser.getTokenVersion());
+        }
+
+        return builder
                 .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
@@ -93,11 +125,42 @@ public class JwtServiceImpl implements JwtService {
                 && claims.getExpiration().after(new Date());
     }
 
+    /**
+     * Разбирает токен один раз: подпись и срок действия проверяет парсер, исключение - токен невалиден.
+     * Повторно предъявленный токен берется из кэша по SHA-256 без HMAC-проверки и разбора JSON.
+     */
+    @Override
+    public ParsedToken parseToken(String token) {
+        if (!verifiedTokens.isEnabled()) {
+            return toParsedToken(parseClaims(token));
+        }
+
+        Instant now = Instant.now();
+        ByteBuffer digest = VerifiedTokenCache.digest(token);
+
+        ParsedToken cached = verifiedTokens.get(digest, now);
+        if (cached != null) return cached;
+
+        ParsedToken parsed = toParsedToken(parseClaims(token));
+        verifiedTokens.put(digest, parsed);
+        return parsed;
+    }
+
+    private static ParsedToken toParsedToken(Claims claims) {
+        String uid = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number ver = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+
+        return new ParsedToken(
+                claims.getSubject(),
+                claims.getExpiration().toInstant(),
+                (uid != null) ? UUID.fromString(uid) : null,
+                (role != null) ? UserRole.valueOf(role) : null,
+                (ver != null) ? ver.longValue() : null
+        );
+    }
+
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,21 @@
+package com.example.bankcards.service.auth;
+
+import com.example.bankcards.entity.user.UserRole;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Результат однократного разбора и проверки подписи JWT.
+ * userId, role и tokenVersion есть только в токенах, выданных с claims (иначе null).
+ */
+public record ParsedToken(String username, Instant expiresAt, UUID userId, UserRole role, Long tokenVersion) {
+
+    public boolean hasStatelessClaims() {
+        return userId != null && role != null && tokenVersion != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt == null || !expiresAt.isAfter(now);
+    }
+}
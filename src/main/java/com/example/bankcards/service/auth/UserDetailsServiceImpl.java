@@ -1,10 +1,12 @@
 package com.example.bankcards.service.auth;
 
+import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.repository.UsersRepository;
 import com.example.bankcards.util.EmailNormalizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsersRepository usersRepository;
 
@@ -24,4 +26,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return usersRepository.findByEmailLower(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User не найден " + email));
     }
+
+    /**
+     * Вызывается DaoAuthenticationProvider после успешного входа, если стоимость BCrypt в хэше
+     * отличается от текущей (BoundedPasswordEncoder.upgradeEncoding).
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof AppUser appUser)) return user;
+
+        usersRepository.updatePasswordHash(appUser.getId(), newPassword);
+        appUser.setPasswordHash(newPassword);
+        return appUser;
+    }
 }
@@ -0,0 +1,72 @@
+package com.example.bankcards.service.auth;
+
+import com.example.bankcards.util.InstancePool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный кэш уже проверенных токенов: SHA-256 токена -> разобранные claims.
+ * Сам токен не хранится. Запись действительна до срока действия токена,
+ * сверх maxSize вытесняется давно не использованная (LRU).
+ */
+final class VerifiedTokenCache {
+
+    private static final InstancePool<MessageDigest> SHA256 = new InstancePool<>(InstancePool.defaultCapacity(), () -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    });
+
+    private final Map<ByteBuffer, ParsedToken> entries;
+    private final int maxSize;
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ParsedToken> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    synchronized ParsedToken get(ByteBuffer digest, Instant now) {
+        ParsedToken cached = entries.get(digest);
+        if (cached == null) return null;
+        if (cached.isExpired(now)) {
+            entries.remove(digest);
+            return null;
+        }
+        return cached;
+    }
+
+    synchronized void put(ByteBuffer digest, ParsedToken parsed) {
+        entries.put(digest, parsed);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static ByteBuffer digest(String token) {
+        MessageDigest md = SHA256.borrow();
+        try {
+            md.reset();
+            return ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            SHA256.release(md);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.bankcards.service.card;
 import com.example.bankcards.dto.card.CardBlockRequestCreate;
 import com.example.bankcards.dto.card.CardBlockRequestResponse;
 import com.example.bankcards.entity.request.CardBlockStatus;
+import com.example.bankcards.service.common.CountStrategy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,7 +13,7 @@ public interface CardBlockRequestsService {
 
     CardBlockRequestResponse create(UUID userId, CardBlockRequestCreate request);
 
-    Page<CardBlockRequestResponse> getAll(CardBlockStatus status, Pageable pageable);
+    Page<CardBlockRequestResponse> getAll(CardBlockStatus status, Pageable pageable, CountStrategy count);
 
     void approve(UUID requestId);
     void reject(UUID requestId);
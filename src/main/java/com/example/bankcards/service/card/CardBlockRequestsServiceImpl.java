@@ -9,26 +9,36 @@ import com.example.bankcards.entity.request.CardBlockStatus;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.repository.CardBlockRequestsRepository;
 import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.RowCountEstimator;
 import com.example.bankcards.repository.UsersRepository;
 import com.example.bankcards.service.card.mapper.CardBlockRequestMapper;
+import com.example.bankcards.service.common.CountStrategy;
+import com.example.bankcards.service.common.PageCounter;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
 public class CardBlockRequestsServiceImpl implements CardBlockRequestsService {
 
+    private static final String TABLE = "card_block_request";
+
     private final CardBlockRequestsRepository blockRequestsRepository;
     private final CardsRepository cardsRepository;
     private final UsersRepository usersRepository;
+    private final PageCounter pageCounter;
+    private final RowCountEstimator rowCountEstimator;
 
     @Override
     @Transactional
@@ -64,12 +74,25 @@ public class CardBlockRequestsServiceImpl implements CardBlockRequestsService {
     }
 
     @Transactional(readOnly = true)
-    public Page<CardBlockRequestResponse> getAll(CardBlockStatus status, Pageable pageable) {
-        Page<CardBlockRequest> page = (status == null)
-                ? blockRequestsRepository.findAll(pageable)
-                : blockRequestsRepository.findAllByStatus(status, pageable);
-
-        return page.map(CardBlockRequestMapper::toResponse);
+    public Page<CardBlockRequestResponse> getAll(CardBlockStatus status, Pageable pageable, CountStrategy count) {
+        List<CardBlockRequest> rows = (status == null)
+                ? blockRequestsRepository.findPage(pageable)
+                : blockRequestsRepository.findByStatus(status, pageable);
+
+        List<CardBlockRequestResponse> content = rows.stream()
+                .map(CardBlockRequestMapper::toResponse)
+                .toList();
+
+        LongSupplier total = (status == null)
+                ? () -> pageCounter.count(count, TABLE,
+                        blockRequestsRepository::count,
+                        () -> rowCountEstimator.estimateTable(TABLE))
+                : () -> pageCounter.count(count, TABLE + ":" + status,
+                        () -> blockRequestsRepository.countByStatus(status),
+                        () -> rowCountEstimator.estimateQuery(
+                                "select 1 from " + TABLE + " where status = ?", status.name()));
+
+        return PageCounter.keepNextPage(PageableExecutionUtils.getPage(content, pageable, total), count);
     }
 
     @Override
@@ -82,12 +105,11 @@ public class CardBlockRequestsServiceImpl implements CardBlockRequestsService {
             throw new IllegalStateException("Заявка не находится в статусе WAITING");
         }
 
-        BankCard card = cardsRepository.findByIdAndDeletedFalse(req.getCard().getId())
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Карта не найдена или удалена: " + req.getCard().getId()
-                ));
+        UUID cardId = req.getCard().getId();
+        if (cardsRepository.updateStatus(cardId, BankCardStatus.BLOCKED) == 0) {
+            throw new EntityNotFoundException("Карта не найдена или удалена: " + cardId);
+        }
 
-        card.setStatus(BankCardStatus.BLOCKED);
         req.setStatus(CardBlockStatus.APPROVED);
     }
 
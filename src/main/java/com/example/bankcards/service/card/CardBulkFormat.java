@@ -0,0 +1,22 @@
+package com.example.bankcards.service.card;
+
+import java.util.Locale;
+
+/**
+ * Формат тела массового выпуска карт.
+ * NDJSON - по объекту CardCreateRequest в строке; CSV - cardNumber,expirationDate,ownerId (заголовок необязателен).
+ */
+public enum CardBulkFormat {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    public static CardBulkFormat fromContentType(String contentType) {
+        String ct = (contentType == null) ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (ct.startsWith(CSV_MEDIA_TYPE)) return CSV;
+        if (ct.startsWith(NDJSON_MEDIA_TYPE)) return NDJSON;
+        throw new IllegalArgumentException("Поддерживаются " + NDJSON_MEDIA_TYPE + " и " + CSV_MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.repository.CardsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Сохраняет статус EXPIRED для карт с истекшим expiration_date, чтобы фильтр по статусу
+ * был равенством по индексу (user_id, status), а не вычислением по дате на каждой строке.
+ * Карты обрабатываются чанками по chunk-size, каждый чанк - своя короткая транзакция;
+ * строки под переводом пропускаются (skip locked). Проход идемпотентен: после рестарта
+ * или сбоя следующий запуск просто продолжит с оставшихся карт. Несколько инстансов
+ * не мешают друг другу за счет того же skip locked.
+ */
+@Slf4j
+@Component
+public class CardExpirationSweeper {
+
+    private final CardsRepository cardsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public CardExpirationSweeper(
+            CardsRepository cardsRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cards.expiration.enabled:true}") boolean enabled,
+            @Value("${app.cards.expiration.chunk-size:500}") int chunkSize,
+            @Value("${app.cards.expiration.max-chunks:1000}") int maxChunks
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalStateException("app.cards.expiration.chunk-size должен быть > 0");
+        }
+        if (maxChunks <= 0) {
+            throw new IllegalStateException("app.cards.expiration.max-chunks должен быть > 0");
+        }
+        this.cardsRepository = cardsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.cards.expiration.initial-delay-ms:0}",
+            fixedDelayString = "${app.cards.expiration.interval-ms:3600000}"
+    )
+    public void sweep() {
+        if (!enabled) return;
+        try {
+            sweep(LocalDate.now());
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Не удалось перевести просроченные карты в EXPIRED", e);
+        }
+    }
+
+    /**
+     * Возвращает число карт, переведенных в EXPIRED за проход.
+     * Проход ограничен max-chunks, остаток достанется следующему запуску.
+     */
+    long sweep(LocalDate today) {
+        long expired = 0;
+        for (int i = 0; i < maxChunks; i++) {
+            Integer updated = transactionTemplate.execute(status -> cardsRepository.expireBatch(today, chunkSize));
+            if (updated == null || updated == 0) break;
+            expired += updated;
+            // неполный чанк - больше нечего брать, кроме пропущенных занятых строк
+            if (updated < chunkSize) break;
+        }
+        if (expired > 0) {
+            log.info("Карт переведено в EXPIRED: {}", expired);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.monitoring.CardLockStatsResponse;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Очередь переводов по картам внутри JVM: конфликтующие переводы ждут здесь,
+ * а не на PESSIMISTIC_WRITE в PostgreSQL с занятым соединением из пула.
+ * Карты отображаются на полосы (stripes) честных ReentrantLock. Полосы захватываются
+ * по возрастанию номера - это глобальный порядок, как LOCK_ORDER для строк:
+ * две карты разных переводов могут попасть в одну полосу, и порядок "по картам" тогда дал бы взаимоблокировку.
+ * Ожидание ограничено wait-ms, после чего перевод отклоняется (409) без обращения к БД.
+ */
+@Component
+public class CardLockManager {
+
+    private static final int HOT_CARDS_LIMIT = 10;
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final AttributeKey<Double> WAIT_MS = AttributeKey.doubleKey("wait.ms");
+
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final long waitNanos;
+
+    private final Map<UUID, Integer> waiting = new ConcurrentHashMap<>();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder contendedWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public CardLockManager(
+            @Value("${app.transfers.card-locks.enabled:false}") boolean enabled,
+            @Value("${app.transfers.card-locks.stripes:1024}") int stripes,
+            @Value("${app.transfers.card-locks.wait-ms:2000}") long waitMs
+    ) {
+        if (stripes <= 0) {
+            throw new IllegalStateException("app.transfers.card-locks.stripes должен быть > 0");
+        }
+        if (waitMs < 0) {
+            throw new IllegalStateException("app.transfers.card-locks.wait-ms должен быть >= 0");
+        }
+        this.enabled = enabled;
+        this.stripes = new ReentrantLock[enabled ? stripes : 0];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Выполняет action, удерживая полосы всех карт. Вызывать до открытия транзакции,
+     * иначе соединение будет занято на время ожидания.
+     */
+    public <T> T withLocks(Collection<UUID> cardIds, Supplier<T> action) {
+        if (!enabled || cardIds.isEmpty()) return action.get();
+
+        int[] order = cardIds.stream()
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int locked = 0;
+        try {
+            acquire(order, cardIds);
+            locked = order.length;
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(int[] order, Collection<UUID> cardIds) {
+        long start = System.nanoTime();
+        long deadline = start + waitNanos;
+        boolean queued = false;
+        int locked = 0;
+        try {
+            for (int stripe : order) {
+                ReentrantLock lock = stripes[stripe];
+                if (!lock.tryLock()) {
+                    if (!queued) {
+                        queued = true;
+                        cardIds.forEach(id -> waiting.merge(id, 1, Integer::sum));
+                    }
+                    if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        timeouts.increment();
+                        Span.current().addEvent("card-locks.timeout",
+                                Attributes.of(WAIT_MS, (System.nanoTime() - start) / NANOS_PER_MS));
+                        throw new IllegalStateException("Карта занята другим переводом, повторите позже");
+                    }
+                }
+                locked++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание блокировки карты прервано");
+        } finally {
+            if (locked < order.length) {
+                for (int i = locked - 1; i >= 0; i--) {
+                    stripes[order[i]].unlock();
+                }
+            }
+            if (queued) {
+                cardIds.forEach(id -> waiting.computeIfPresent(id, (k, v) -> (v > 1) ? v - 1 : null));
+            }
+        }
+
+        acquired.increment();
+        if (queued) {
+            long waited = System.nanoTime() - start;
+            contended.increment();
+            contendedWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            // в дереве медленной трассы ожидание очереди видно событием на текущем спане
+            Span.current().addEvent("card-locks.wait", Attributes.of(WAIT_MS, waited / NANOS_PER_MS));
+        }
+    }
+
+    public CardLockStatsResponse stats() {
+        int queued = 0;
+        for (ReentrantLock lock : stripes) {
+            queued += lock.getQueueLength();
+        }
+
+        long contendedCount = contended.sum();
+        double avgWaitMs = (contendedCount == 0) ? 0.0 : contendedWaitNanos.sum() / NANOS_PER_MS / contendedCount;
+
+        List<CardLockStatsResponse.HotCard> hotCards = waiting.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(HOT_CARDS_LIMIT)
+                .map(e -> new CardLockStatsResponse.HotCard(e.getKey(), e.getValue()))
+                .toList();
+
+        return new CardLockStatsResponse(
+                enabled,
+                stripes.length,
+                queued,
+                acquired.sum(),
+                contendedCount,
+                timeouts.sum(),
+                avgWaitMs,
+                maxWaitNanos.get() / NANOS_PER_MS,
+                hotCards
+        );
+    }
+
+    private int stripeOf(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) Math.floorMod(h, (long) stripes.length);
+    }
+}
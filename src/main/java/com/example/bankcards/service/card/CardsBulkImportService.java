@@ -0,0 +1,17 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkImportEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface CardsBulkImportService {
+
+    /**
+     * Читает тело построчно и выпускает карты чанками; ошибки строк и прогресс отдаются в events.
+     * Возвращает итоговое событие DONE (оно же передается в events последним).
+     */
+    CardBulkImportEvent importCards(Reader body, CardBulkFormat format, Consumer<CardBulkImportEvent> events)
+            throws IOException;
+}
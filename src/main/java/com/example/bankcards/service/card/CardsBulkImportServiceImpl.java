@@ -0,0 +1,307 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkImportEvent;
+import com.example.bankcards.dto.card.CardCreateRequest;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.util.CardMasker;
+import com.example.bankcards.util.PanEncryptor;
+import com.example.bankcards.util.PanNormalizer;
+import com.example.bankcards.util.PepperHashEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый выпуск карт. Тело читается построчно и обрабатывается чанками:
+ * разбор, валидация, нормализация и хэширование PAN - параллельно; дубликаты и владельцы
+ * проверяются одним запросом на чанк; шифруются только проходящие карты;
+ * вставка - многострочным INSERT ... returning в отдельной транзакции на чанк.
+ */
+@Slf4j
+@Service
+public class CardsBulkImportServiceImpl implements CardsBulkImportService {
+
+    private static final String INSERT_CARDS = """
+            insert into cards (id, encrypted_card_number, masked_card_number, expiration_date,
+                               balance, status, user_id, pan_hash, deleted, version, pan_last4)
+            values %s
+            on conflict (pan_hash) do nothing
+            returning pan_hash
+            """;
+    private static final String INSERT_CARD_ROW = "(?, ?, ?, ?, 0, ?, ?, ?, false, 0, ?)";
+    // 8 параметров на строку, у PostgreSQL предел 65535 параметров на оператор
+    private static final int MAX_ROWS_PER_INSERT = 1000;
+
+    private static final String MSG_DUPLICATE = "Карта с таким номером уже существует";
+
+    private final CardsRepository cardsRepository;
+    private final UsersRepository usersRepository;
+    private final PepperHashEncoder hashEncoder;
+    private final PanEncryptor panEncryptor;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CardsBulkImportServiceImpl(
+            CardsRepository cardsRepository,
+            UsersRepository usersRepository,
+            PepperHashEncoder hashEncoder,
+            PanEncryptor panEncryptor,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cards.bulk.chunk-size:1000}") int chunkSize
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalStateException("app.cards.bulk.chunk-size должен быть > 0");
+        }
+        this.cardsRepository = cardsRepository;
+        this.usersRepository = usersRepository;
+        this.hashEncoder = hashEncoder;
+        this.panEncryptor = panEncryptor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public CardBulkImportEvent importCards(Reader body, CardBulkFormat format, Consumer<CardBulkImportEvent> events)
+            throws IOException {
+        BufferedReader reader = (body instanceof BufferedReader br) ? br : new BufferedReader(body);
+        Stats stats = new Stats();
+        List<RawLine> chunk = new ArrayList<>(chunkSize);
+
+        long lineNo = 0;
+        boolean firstDataLine = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+
+            if (firstDataLine && format == CardBulkFormat.CSV && isCsvHeader(line)) {
+                firstDataLine = false;
+                continue;
+            }
+            firstDataLine = false;
+
+            chunk.add(new RawLine(lineNo, line));
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, format, stats, events);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, format, stats, events);
+        }
+
+        CardBulkImportEvent done = CardBulkImportEvent.done(stats.processed, stats.created, stats.duplicates, stats.failed);
+        events.accept(done);
+        return done;
+    }
+
+    private void processChunk(List<RawLine> chunk, CardBulkFormat format, Stats stats,
+                              Consumer<CardBulkImportEvent> events) {
+        List<Candidate> prepared = chunk.parallelStream()
+                .map(raw -> prepare(raw, format))
+                .toList();
+
+        Map<String, Candidate> byHash = new LinkedHashMap<>();
+        for (Candidate c : prepared) {
+            if (c.error() != null) {
+                stats.fail(c.line(), c.error(), events);
+            } else if (byHash.putIfAbsent(c.panHash(), c) != null) {
+                stats.duplicate(c.line(), events);
+            }
+        }
+
+        if (!byHash.isEmpty()) {
+            // события чанка отдаются только после коммита, чтобы при откате не посчитать строки дважды
+            Stats chunkStats = new Stats();
+            List<CardBulkImportEvent> chunkEvents = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(byHash, chunkStats, chunkEvents::add));
+                stats.add(chunkStats);
+                chunkEvents.forEach(events);
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Bulk import: чанк строк {}-{} не записан: {}",
+                        chunk.getFirst().line(), chunk.getLast().line(), e.getMessage());
+                for (Candidate c : byHash.values()) {
+                    stats.fail(c.line(), "Не удалось записать карту", events);
+                }
+            }
+        }
+
+        stats.processed += chunk.size();
+        events.accept(CardBulkImportEvent.progress(stats.processed, stats.created, stats.duplicates, stats.failed));
+    }
+
+    private void insertChunk(Map<String, Candidate> byHash, Stats stats, Consumer<CardBulkImportEvent> events) {
+        Set<String> existing = new HashSet<>(cardsRepository.findExistingPanHashes(byHash.keySet()));
+
+        Set<UUID> ownerIds = byHash.values().stream()
+                .map(c -> c.request().ownerId())
+                .collect(Collectors.toSet());
+        Set<UUID> knownOwners = new HashSet<>(usersRepository.findExistingIds(ownerIds));
+
+        List<Candidate> toInsert = new ArrayList<>(byHash.size());
+        for (Candidate c : byHash.values()) {
+            if (existing.contains(c.panHash())) {
+                stats.duplicate(c.line(), events);
+            } else if (!knownOwners.contains(c.request().ownerId())) {
+                stats.fail(c.line(), "Пользователь не найден: " + c.request().ownerId(), events);
+            } else {
+                toInsert.add(c);
+            }
+        }
+        if (toInsert.isEmpty()) return;
+
+        List<Object[]> rows = toInsert.parallelStream()
+                .map(c -> new Object[]{
+                        UUID.randomUUID(),
+                        panEncryptor.encrypt(c.pan()),
+                        c.masked(),
+                        Date.valueOf(c.request().expirationDate()),
+                        BankCardStatus.ACTIVE.name(),
+                        c.request().ownerId(),
+                        c.panHash(),
+                        CardMasker.last4(c.pan())
+                })
+                .toList();
+
+        // вставленные строки берутся из returning: счетчики JDBC-батча при reWriteBatchedInserts
+        // всегда SUCCESS_NO_INFO (-2) и не отличают вставку от конфликта с параллельным импортом
+        Set<String> inserted = new HashSet<>(rows.size() * 2);
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_INSERT) {
+            inserted.addAll(insertRows(rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_INSERT))));
+        }
+
+        for (Candidate c : toInsert) {
+            if (inserted.contains(c.panHash())) {
+                stats.created++;
+            } else {
+                stats.duplicate(c.line(), events);
+            }
+        }
+    }
+
+    /** Один многострочный INSERT; возвращает pan_hash реально вставленных строк. */
+    private List<String> insertRows(List<Object[]> rows) {
+        String sql = INSERT_CARDS.formatted(String.join(", ", Collections.nCopies(rows.size(), INSERT_CARD_ROW)));
+        Object[] args = rows.stream().flatMap(Arrays::stream).toArray();
+
+        PreparedStatementSetter setter = new ArgumentPreparedStatementSetter(args);
+        RowMapper<String> panHash = (rs, rowNum) -> rs.getString(1);
+        return jdbcTemplate.query(sql, setter, panHash);
+    }
+
+    private Candidate prepare(RawLine raw, CardBulkFormat format) {
+        CardCreateRequest req;
+        try {
+            req = (format == CardBulkFormat.CSV)
+                    ? parseCsv(raw.text())
+                    : objectMapper.readValue(raw.text(), CardCreateRequest.class);
+        } catch (Exception e) {
+            return Candidate.failed(raw.line(), "Некорректная строка: ожидается " + format);
+        }
+
+        Set<ConstraintViolation<CardCreateRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            String msg = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return Candidate.failed(raw.line(), msg);
+        }
+
+        String pan = PanNormalizer.normalize(req.cardNumber());
+        if (pan.length() < 13 || pan.length() > 19) {
+            return Candidate.failed(raw.line(), "Некорректная длина номера карты");
+        }
+
+        return new Candidate(raw.line(), req, pan, hashEncoder.sha256Hex(pan), CardMasker.mask(pan), null);
+    }
+
+    private static CardCreateRequest parseCsv(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("CSV: ожидается 3 колонки");
+        }
+        return new CardCreateRequest(
+                parts[0].trim(),
+                LocalDate.parse(parts[1].trim()),
+                UUID.fromString(parts[2].trim())
+        );
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase(Locale.ROOT).startsWith("cardnumber");
+    }
+
+    private record RawLine(long line, String text) {}
+
+    private record Candidate(long line, CardCreateRequest request, String pan, String panHash, String masked,
+                             String error) {
+        static Candidate failed(long line, String error) {
+            return new Candidate(line, null, null, null, null, error);
+        }
+    }
+
+    private static final class Stats {
+        long processed;
+        long created;
+        long duplicates;
+        long failed;
+
+        void fail(long line, String error, Consumer<CardBulkImportEvent> events) {
+            failed++;
+            events.accept(CardBulkImportEvent.error(line, error));
+        }
+
+        void duplicate(long line, Consumer<CardBulkImportEvent> events) {
+            duplicates++;
+            events.accept(CardBulkImportEvent.error(line, MSG_DUPLICATE));
+        }
+
+        void add(Stats other) {
+            created += other.created;
+            duplicates += other.duplicates;
+            failed += other.failed;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkAction;
+import com.example.bankcards.dto.card.CardBulkStatusEvent;
+import com.example.bankcards.entity.card.BankCardStatus;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface CardsBulkStatusService {
+
+    /**
+     * Применяет action ко всем картам по фильтру чанками, каждый чанк - в своей транзакции.
+     * Прогресс отдается в events после коммита чанка; возвращается итоговое событие DONE
+     * (оно же передается в events последним).
+     */
+    CardBulkStatusEvent apply(CardBulkAction action, UUID ownerId, BankCardStatus status, String last4,
+                              Consumer<CardBulkStatusEvent> events);
+}
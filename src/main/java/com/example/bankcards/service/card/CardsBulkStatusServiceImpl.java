@@ -0,0 +1,106 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkAction;
+import com.example.bankcards.dto.card.CardBulkStatusEvent;
+import com.example.bankcards.entity.card.BankCard;
+import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.service.card.spec.CardsSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Массовая блокировка/активация/удаление карт по фильтру (фрод: все карты пользователя или по last4).
+ * Карты обходятся по id чанками: в транзакции чанка выбираются только id, затем один
+ * set-based UPDATE по ним - без загрузки сущностей. Закоммиченные чанки не откатываются,
+ * поэтому повторный вызов после сбоя безопасен: уже измененные карты не считаются повторно.
+ */
+@Slf4j
+@Service
+public class CardsBulkStatusServiceImpl implements CardsBulkStatusService {
+
+    private final CardsRepository cardsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CardsBulkStatusServiceImpl(
+            CardsRepository cardsRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cards.bulk-status.chunk-size:1000}") int chunkSize
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalStateException("app.cards.bulk-status.chunk-size должен быть > 0");
+        }
+        this.cardsRepository = cardsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public CardBulkStatusEvent apply(CardBulkAction action, UUID ownerId, BankCardStatus status, String last4,
+                                     Consumer<CardBulkStatusEvent> events) {
+        if (action == null) {
+            throw new IllegalArgumentException("action не должен быть null");
+        }
+        String normalizedLast4 = CardsServiceImpl.normalizeLast4OrNull(last4);
+        if (ownerId == null && normalizedLast4 == null) {
+            throw new IllegalArgumentException("Для массовой операции нужен фильтр ownerId или last4");
+        }
+
+        LocalDate today = LocalDate.now();
+        Specification<BankCard> filter = Specification
+                .where(CardsSpecifications.notDeleted())
+                .and(CardsSpecifications.ownerId(ownerId))
+                .and(CardsSpecifications.statusWithExpiration(status, today))
+                .and(CardsSpecifications.last4(normalizedLast4));
+
+        long matched = 0;
+        long affected = 0;
+        int chunks = 0;
+        UUID lastId = null;
+
+        while (true) {
+            Specification<BankCard> spec = filter.and(CardsSpecifications.idAfter(lastId));
+            Chunk chunk = transactionTemplate.execute(tx -> applyChunk(action, spec, today));
+            if (chunk == null || chunk.ids().isEmpty()) break;
+
+            matched += chunk.ids().size();
+            affected += chunk.affected();
+            chunks++;
+            lastId = chunk.ids().getLast();
+            events.accept(CardBulkStatusEvent.progress(action, matched, affected, chunks));
+
+            if (chunk.ids().size() < chunkSize) break;
+        }
+
+        log.info("Bulk {}: ownerId={}, status={}, last4={}, найдено {}, изменено {}",
+                action, ownerId, status, normalizedLast4, matched, affected);
+
+        CardBulkStatusEvent done = CardBulkStatusEvent.done(action, matched, affected, chunks);
+        events.accept(done);
+        return done;
+    }
+
+    private Chunk applyChunk(CardBulkAction action, Specification<BankCard> spec, LocalDate today) {
+        List<UUID> ids = cardsRepository.findIds(spec, chunkSize);
+        if (ids.isEmpty()) return new Chunk(ids, 0);
+
+        int affected = switch (action) {
+            case BLOCK -> cardsRepository.blockAllByIds(ids);
+            case ACTIVATE -> cardsRepository.activateAllByIds(ids, today);
+            case DELETE -> cardsRepository.softDeleteAllByIds(ids);
+        };
+        return new Chunk(ids, affected);
+    }
+
+    private record Chunk(List<UUID> ids, int affected) {}
+}
@@ -4,9 +4,12 @@ import com.example.bankcards.dto.card.BalanceResponse;
 import com.example.bankcards.dto.card.CardAdminUpdateRequest;
 import com.example.bankcards.dto.card.CardCreateRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.common.CursorSliceResponse;
 import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.service.common.CountStrategy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.UUID;
 
@@ -14,11 +17,16 @@ public interface CardsService {
 
     // USER
     Page<CardResponse> getMyCards(UUID userId, BankCardStatus status, String last4, Pageable pageable);
+    CursorSliceResponse<CardResponse> scrollMyCards(UUID userId, BankCardStatus status, String last4,
+                                                    Sort sort, String cursor, int size);
     CardResponse getMyCardById(UUID userId, UUID cardId);
     BalanceResponse getBalance(UUID userId, UUID cardId);
 
     // ADMIN (Read/Search)
-    Page<CardResponse> searchCards(UUID ownerId, BankCardStatus status, String last4, Pageable pageable);
+    Page<CardResponse> searchCards(UUID ownerId, BankCardStatus status, String last4, Pageable pageable,
+                                   CountStrategy count);
+    CursorSliceResponse<CardResponse> scrollCards(UUID ownerId, BankCardStatus status, String last4,
+                                                  Sort sort, String cursor, int size);
     CardResponse getAdminCardById(UUID cardId);
 
     // ADMIN (Commands)
@@ -4,50 +4,69 @@ import com.example.bankcards.dto.card.BalanceResponse;
 import com.example.bankcards.dto.card.CardAdminUpdateRequest;
 import com.example.bankcards.dto.card.CardCreateRequest;
 import com.example.bankcards.dto.card.CardResponse;
+import com.example.bankcards.dto.common.CursorSliceResponse;
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.repository.CardsRepository;
 import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.repository.projection.CardView;
 import com.example.bankcards.service.card.mapper.CardMapper;
+import com.example.bankcards.service.card.spec.CardCursor;
 import com.example.bankcards.service.card.spec.CardsSpecifications;
+import com.example.bankcards.service.common.CountStrategy;
+import com.example.bankcards.service.common.PageCounter;
 import com.example.bankcards.util.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @Transactional
 public class CardsServiceImpl implements CardsService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final CardsRepository cardsRepository;
     private final UsersRepository usersRepository;
     private final PepperHashEncoder hashEncoder;
     private final PanEncryptor panEncryptor;
+    private final PageCounter pageCounter;
 
     public CardsServiceImpl(
             CardsRepository cardsRepository,
             UsersRepository usersRepository,
             PepperHashEncoder hashEncoder,
-            PanEncryptor panEncryptor
+            PanEncryptor panEncryptor,
+            PageCounter pageCounter
     ) {
         this.cardsRepository = cardsRepository;
         this.usersRepository = usersRepository;
         this.hashEncoder = hashEncoder;
         this.panEncryptor = panEncryptor;
+        this.pageCounter = pageCounter;
     }
 
     // USER
     @Override
     @Transactional(readOnly = true)
     public Page<CardResponse> getMyCards(UUID userId, BankCardStatus status, String last4, Pageable pageable) {
-        return searchCards(userId, status, last4, pageable);
+        return searchCards(userId, status, last4, pageable, CountStrategy.EXACT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<CardResponse> scrollMyCards(UUID userId, BankCardStatus status, String last4,
+                                                           Sort sort, String cursor, int size) {
+        return scrollCards(userId, status, last4, sort, cursor, size);
     }
 
     @Override
@@ -80,7 +99,8 @@ public class CardsServiceImpl implements CardsService {
     // ADMIN: READ / SEARCH
     @Override
     @Transactional(readOnly = true)
-    public Page<CardResponse> searchCards(UUID ownerId, BankCardStatus status, String last4, Pageable pageable) {
+    public Page<CardResponse> searchCards(UUID ownerId, BankCardStatus status, String last4, Pageable pageable,
+                                          CountStrategy count) {
         String normalizedLast4 = normalizeLast4OrNull(last4);
         LocalDate today = LocalDate.now();
 
@@ -90,8 +110,56 @@ public class CardsServiceImpl implements CardsService {
                 .and(CardsSpecifications.statusWithExpiration(status, today))
                 .and(CardsSpecifications.last4(normalizedLast4));
 
-        return cardsRepository.findAll(spec, pageable)
-                .map(c -> CardMapper.toResponse(c, today));
+        Page<CardView> page = (count == CountStrategy.EXACT)
+                ? cardsRepository.findViews(spec, pageable)
+                : cardsRepository.findViews(spec, pageable, () -> pageCounter.count(
+                        count,
+                        "cards:" + ownerId + ":" + status + ":" + normalizedLast4,
+                        () -> cardsRepository.count(spec),
+                        () -> cardsRepository.estimateCount(ownerId, status, normalizedLast4, today)));
+
+        return PageCounter.keepNextPage(page, count).map(v -> CardMapper.toResponse(v, today));
+    }
+
+    /**
+     * Keyset-пагинация: вместо OFFSET условие "после курсора" по (ключ сортировки, id),
+     * без count(*). Читается size + 1 строка, чтобы узнать, есть ли следующий срез.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<CardResponse> scrollCards(UUID ownerId, BankCardStatus status, String last4,
+                                                         Sort sort, String cursor, int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size должен быть от 1 до " + MAX_SCROLL_SIZE);
+        }
+
+        String normalizedLast4 = normalizeLast4OrNull(last4);
+        Sort.Order order = scrollOrder(sort);
+        CardCursor after = decodeCursorOrNull(cursor, order);
+        LocalDate today = LocalDate.now();
+
+        Specification<BankCard> spec = Specification
+                .where(CardsSpecifications.notDeleted())
+                .and(CardsSpecifications.ownerId(ownerId))
+                .and(CardsSpecifications.statusWithExpiration(status, today))
+                .and(CardsSpecifications.last4(normalizedLast4))
+                .and(CardsSpecifications.after(after));
+
+        Sort keysetSort = "id".equals(order.getProperty())
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+
+        List<CardView> rows = cardsRepository.findViews(spec, keysetSort, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<CardView> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? CardCursor.of(page.getLast(), order).encode() : null;
+        List<CardResponse> content = page.stream()
+                .map(v -> CardMapper.toResponse(v, today))
+                .toList();
+
+        return new CursorSliceResponse<>(content, size, hasNext, nextCursor);
     }
 
     @Override
@@ -133,6 +201,7 @@ public class CardsServiceImpl implements CardsService {
                 .panHash(panHash)
                 .encryptedCardNumber(encrypted)
                 .maskedCardNumber(masked)
+                .panLast4(CardMasker.last4(pan))
                 .deleted(false)
                 .build();
 
@@ -145,11 +214,16 @@ public class CardsServiceImpl implements CardsService {
         BankCard card = cardsRepository.findByIdAndDeletedFalse(cardId)
                 .orElseThrow(() -> new EntityNotFoundException("Карта не найдена: " + cardId));
 
+        LocalDate today = LocalDate.now();
         if (req.expirationDate() != null) {
             card.setExpirationDate(req.expirationDate());
+            // продленная карта не активируется сама - только явным activate
+            if (card.getStatus() == BankCardStatus.EXPIRED
+                    && !CardStatusUtil.isExpired(req.expirationDate(), today)) {
+                card.setStatus(BankCardStatus.BLOCKED);
+            }
         }
 
-        LocalDate today = LocalDate.now();
         return CardMapper.toResponse(cardsRepository.save(card), today);
     }
 
@@ -181,19 +255,41 @@ public class CardsServiceImpl implements CardsService {
     // SOFT DELETE
     @Override
     public void deleteCard(UUID cardId) {
-        BankCard card = cardsRepository.findByIdAndDeletedFalse(cardId)
-                .orElseThrow(() -> new EntityNotFoundException("Карта не найдена: " + cardId));
-
-        card.setDeleted(true);
-        card.setStatus(BankCardStatus.BLOCKED);
-        cardsRepository.save(card);
+        if (cardsRepository.softDelete(cardId) == 0) {
+            throw new EntityNotFoundException("Карта не найдена: " + cardId);
+        }
     }
 
-    private static String normalizeLast4OrNull(String last4) {
+    static String normalizeLast4OrNull(String last4) {
         if (last4 == null) return null;
         String s = last4.trim();
         if (s.isEmpty()) return null;
         if (!s.matches("\\d{4}")) throw new IllegalArgumentException("last4 должен состоять ровно из 4 цифр");
         return s;
     }
+
+    private static Sort.Order scrollOrder(Sort sort) {
+        if (sort == null || sort.isUnsorted()) return Sort.Order.asc("id");
+
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new IllegalArgumentException("Для курсорной пагинации допускается одно поле сортировки");
+        }
+
+        Sort.Order order = orders.getFirst();
+        if (!CardCursor.SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Недопустимое поле сортировки: " + order.getProperty());
+        }
+        return order;
+    }
+
+    private static CardCursor decodeCursorOrNull(String cursor, Sort.Order order) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        CardCursor decoded = CardCursor.decode(cursor);
+        if (!decoded.property().equals(order.getProperty()) || decoded.direction() != order.getDirection()) {
+            throw new IllegalArgumentException("cursor не соответствует сортировке");
+        }
+        return decoded;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.TransferHistoryItem;
+import com.example.bankcards.dto.common.CursorSliceResponse;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface TransferHistoryService {
+    CursorSliceResponse<TransferHistoryItem> getMyCardTransfers(UUID userId, UUID cardId, LocalDateTime from,
+                                                                LocalDateTime to, String cursor, int size);
+
+    CursorSliceResponse<TransferHistoryItem> getCardTransfers(UUID cardId, LocalDateTime from, LocalDateTime to,
+                                                              String cursor, int size);
+}
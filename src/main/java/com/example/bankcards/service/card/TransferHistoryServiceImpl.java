@@ -0,0 +1,126 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.TransferDirection;
+import com.example.bankcards.dto.card.TransferHistoryItem;
+import com.example.bankcards.dto.common.CursorSliceResponse;
+import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.TransferRecordsRepository;
+import com.example.bankcards.repository.projection.TransferView;
+import com.example.bankcards.service.card.spec.TransferCursor;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * История переводов карты с keyset-пагинацией по (createdAt, id), новые первыми.
+ * Списания и зачисления читаются двумя запросами по своим составным индексам
+ * и сливаются в памяти: каждый отдает не больше size + 1 строк.
+ * Окно [from, to) и позиция курсора передаются как явные границы по createdAt,
+ * чтобы PostgreSQL читал только нужные месячные секции transfers_record.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferHistoryServiceImpl implements TransferHistoryService {
+
+    private static final int MAX_SIZE = 100;
+
+    // нижняя граница окна по умолчанию: раньше записей быть не может
+    static final LocalDateTime MIN_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // uuid в PostgreSQL сравнивается как беззнаковые байты, поэтому тот же порядок, что и у блокировок
+    private static final Comparator<TransferView> NEWEST_FIRST = Comparator
+            .comparing(TransferView::createdAt)
+            .thenComparing(TransferView::id, TransferServiceImpl.LOCK_ORDER)
+            .reversed();
+
+    private final CardsRepository cardsRepository;
+    private final TransferRecordsRepository transferRecordsRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<TransferHistoryItem> getMyCardTransfers(UUID userId, UUID cardId,
+                                                                       LocalDateTime from, LocalDateTime to,
+                                                                       String cursor, int size) {
+        validateSize(size);
+        validateWindow(from, to);
+        if (!cardsRepository.existsByIdAndOwnerIdAndDeletedFalse(cardId, userId)) {
+            throw new EntityNotFoundException("Карта не найдена: " + cardId);
+        }
+        return loadSlice(cardId, from, to, cursor, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<TransferHistoryItem> getCardTransfers(UUID cardId, LocalDateTime from,
+                                                                     LocalDateTime to, String cursor, int size) {
+        validateSize(size);
+        validateWindow(from, to);
+        if (!cardsRepository.existsById(cardId)) {
+            throw new EntityNotFoundException("Карта не найдена: " + cardId);
+        }
+        return loadSlice(cardId, from, to, cursor, size);
+    }
+
+    private CursorSliceResponse<TransferHistoryItem> loadSlice(UUID cardId, LocalDateTime from, LocalDateTime to,
+                                                               String cursor, int size) {
+        TransferCursor after = (cursor == null || cursor.isBlank()) ? TransferCursor.START : TransferCursor.decode(cursor);
+        LocalDateTime lower = (from != null) ? from : MIN_CREATED_AT;
+        LocalDateTime upper = (to != null) ? to : TransferCursor.START.createdAt();
+        Limit limit = Limit.of(size + 1);
+
+        List<TransferView> outgoing = transferRecordsRepository
+                .findOutgoingBefore(cardId, lower, upper, after.createdAt(), after.id(), limit);
+        List<TransferView> incoming = transferRecordsRepository
+                .findIncomingBefore(cardId, lower, upper, after.createdAt(), after.id(), limit);
+
+        List<TransferView> merged = merge(outgoing, incoming, size + 1);
+        boolean hasNext = merged.size() > size;
+        List<TransferView> page = hasNext ? merged.subList(0, size) : merged;
+
+        List<TransferHistoryItem> content = page.stream()
+                .map(t -> toItem(t, cardId))
+                .toList();
+        String nextCursor = hasNext ? TransferCursor.of(page.getLast()).encode() : null;
+
+        return new CursorSliceResponse<>(content, size, hasNext, nextCursor);
+    }
+
+    private static List<TransferView> merge(List<TransferView> a, List<TransferView> b, int limit) {
+        List<TransferView> out = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (out.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && NEWEST_FIRST.compare(a.get(i), b.get(j)) <= 0)) {
+                out.add(a.get(i++));
+            } else {
+                out.add(b.get(j++));
+            }
+        }
+        return out;
+    }
+
+    private static TransferHistoryItem toItem(TransferView t, UUID cardId) {
+        TransferDirection direction = cardId.equals(t.fromCardId()) ? TransferDirection.OUT : TransferDirection.IN;
+        return new TransferHistoryItem(t.id(), direction, t.fromCardId(), t.toCardId(), t.amount(), t.createdAt());
+    }
+
+    private static void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from должен быть раньше to");
+        }
+    }
+
+    private static void validateSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size должен быть от 1 до " + MAX_SIZE);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.TransferResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный LRU-кэш уже выполненных переводов по ключу идемпотентности.
+ * Повтор из кэша не берет соединение из пула и не блокирует карты.
+ * Записи попадают сюда только после фиксации транзакции и живут не дольше retention-hours,
+ * как строки transfer_idempotency (TransferIdempotencyPurger): иначе после удаления строки
+ * этот инстанс отвечал бы из памяти, а остальные выполняли бы перевод заново.
+ */
+@Component
+public class TransferIdempotencyCache {
+
+    private final Map<Key, Entry> entries;
+    private final long retentionNanos;
+    private final LongSupplier clock;
+
+    public TransferIdempotencyCache(
+            @Value("${app.transfers.idempotency.cache-size:10000}") int maxEntries,
+            @Value("${app.transfers.idempotency.retention-hours:24}") long retentionHours
+    ) {
+        this(maxEntries, retentionHours, System::nanoTime);
+    }
+
+    TransferIdempotencyCache(int maxEntries, long retentionHours, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalStateException("app.transfers.idempotency.cache-size должен быть > 0");
+        }
+        if (retentionHours <= 0) {
+            throw new IllegalStateException("app.transfers.idempotency.retention-hours должен быть > 0");
+        }
+        this.retentionNanos = TimeUnit.HOURS.toNanos(retentionHours);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized TransferResponse get(UUID userId, String idempotencyKey) {
+        Key key = new Key(userId, idempotencyKey);
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (clock.getAsLong() - entry.completedAt() >= retentionNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response();
+    }
+
+    public synchronized void put(UUID userId, String idempotencyKey, TransferResponse response) {
+        entries.put(new Key(userId, idempotencyKey), new Entry(response, clock.getAsLong()));
+    }
+
+    private record Key(UUID userId, String idempotencyKey) {}
+
+    private record Entry(TransferResponse response, long completedAt) {}
+}
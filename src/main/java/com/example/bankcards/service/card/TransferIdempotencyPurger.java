@@ -0,0 +1,82 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.repository.TransferIdempotencyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Удаляет ключи идемпотентности старше retention-hours, иначе transfer_idempotency
+ * и ее уникальный индекс растут бесконечно. Повтор перевода с удаленным ключом выполнится заново,
+ * поэтому retention-hours должен быть больше, чем клиенты повторяют запросы.
+ * Чанки по chunk-size, каждый - своя короткая транзакция, как в CardExpirationSweeper.
+ */
+@Slf4j
+@Component
+public class TransferIdempotencyPurger {
+
+    private final TransferIdempotencyRepository idempotencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionHours;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public TransferIdempotencyPurger(
+            TransferIdempotencyRepository idempotencyRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.transfers.idempotency.purge.enabled:true}") boolean enabled,
+            @Value("${app.transfers.idempotency.retention-hours:24}") int retentionHours,
+            @Value("${app.transfers.idempotency.purge.chunk-size:1000}") int chunkSize,
+            @Value("${app.transfers.idempotency.purge.max-chunks:1000}") int maxChunks
+    ) {
+        if (retentionHours <= 0) {
+            throw new IllegalStateException("app.transfers.idempotency.retention-hours должен быть > 0");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalStateException("app.transfers.idempotency.purge.chunk-size должен быть > 0");
+        }
+        if (maxChunks <= 0) {
+            throw new IllegalStateException("app.transfers.idempotency.purge.max-chunks должен быть > 0");
+        }
+        this.idempotencyRepository = idempotencyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionHours = retentionHours;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.transfers.idempotency.purge.initial-delay-ms:60000}",
+            fixedDelayString = "${app.transfers.idempotency.purge.interval-ms:3600000}"
+    )
+    public void purge() {
+        if (!enabled) return;
+        try {
+            purgeExpired();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Не удалось удалить устаревшие ключи идемпотентности", e);
+        }
+    }
+
+    /** Возвращает число удаленных ключей; проход ограничен max-chunks. */
+    long purgeExpired() {
+        long purged = 0;
+        for (int i = 0; i < maxChunks; i++) {
+            Integer deleted = transactionTemplate.execute(status -> idempotencyRepository.purgeBatch(retentionHours, chunkSize));
+            if (deleted == null || deleted == 0) break;
+            purged += deleted;
+            if (deleted < chunkSize) break;
+        }
+        if (purged > 0) {
+            log.info("Удалено устаревших ключей идемпотентности: {}", purged);
+        }
+        return purged;
+    }
+}
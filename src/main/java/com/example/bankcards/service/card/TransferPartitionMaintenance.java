@@ -0,0 +1,201 @@
+package com.example.bankcards.service.card;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание помесячных секций transfers_record (см. changeset 023):
+ * заранее создает секции на months-ahead месяцев вперед, чтобы вставки не попадали в default,
+ * и отцепляет секции старше retention-months: переносит в схему transfers_archive или удаляет.
+ * Каждый месяц создается или отцепляется в своей транзакции под pg_try_advisory_xact_lock, поэтому
+ * несколько инстансов не мешают друг другу, а ошибка по одному месяцу не откатывает остальные.
+ * Месяц, строки которого уже лежат в transfers_record_default, пропускается с предупреждением:
+ * PostgreSQL не даст создать для него секцию, пока строки не перенесены вручную.
+ */
+@Slf4j
+@Component
+public class TransferPartitionMaintenance {
+
+    static final String PARENT_TABLE = "transfers_record";
+    static final String DEFAULT_PARTITION = "transfers_record_default";
+    static final String ARCHIVE_SCHEMA = "transfers_archive";
+
+    // произвольный, но постоянный ключ advisory-блокировки обслуживания секций
+    private static final long ADVISORY_LOCK_KEY = 0x7472_616e_7366_6572L;
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transfers_record_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+
+    public TransferPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.transfers.partitions.enabled:true}") boolean enabled,
+            @Value("${app.transfers.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${app.transfers.partitions.retention-months:0}") int retentionMonths,
+            @Value("${app.transfers.partitions.drop-expired:false}") boolean dropExpired
+    ) {
+        if (monthsAhead < 1) {
+            throw new IllegalStateException("app.transfers.partitions.months-ahead должен быть >= 1");
+        }
+        if (retentionMonths < 0) {
+            throw new IllegalStateException("app.transfers.partitions.retention-months должен быть >= 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.transfers.partitions.initial-delay-ms:0}",
+            fixedDelayString = "${app.transfers.partitions.interval-ms:3600000}"
+    )
+    public void maintain() {
+        if (!enabled) return;
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Не удалось обслужить секции {}", PARENT_TABLE, e);
+        }
+    }
+
+    void maintain(YearMonth current) {
+        Set<YearMonth> existing = transactionTemplate.execute(status -> {
+            if (!tryLock()) {
+                log.debug("Секции {} обслуживает другой инстанс", PARENT_TABLE);
+                return null;
+            }
+            if (!isPartitioned()) {
+                log.debug("Таблица {} не секционирована, обслуживание пропущено", PARENT_TABLE);
+                return null;
+            }
+            return existingPartitions();
+        });
+        if (existing == null) return;
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                inOwnTransaction(month, () -> createPartition(month));
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (YearMonth month : existing) {
+                if (month.isBefore(oldestKept)) {
+                    inOwnTransaction(month, () -> retirePartition(month));
+                }
+            }
+        }
+    }
+
+    private void inOwnTransaction(YearMonth month, Runnable action) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!tryLock()) {
+                    log.debug("Секция {} пропущена: обслуживание перехватил другой инстанс", partitionName(month));
+                    return;
+                }
+                action.run();
+            });
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Не удалось обслужить секцию {}", partitionName(month), e);
+        }
+    }
+
+    private boolean tryLock() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                "select pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+        return Boolean.TRUE.equals(locked);
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = to_regclass(?)",
+                Integer.class, PARENT_TABLE);
+        return count != null && count > 0;
+    }
+
+    private Set<YearMonth> existingPartitions() {
+        List<String> names = jdbcTemplate.queryForList("""
+                select c.relname
+                from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = to_regclass(?)
+                """, String.class, PARENT_TABLE);
+
+        Set<YearMonth> months = new TreeSet<>();
+        for (String name : names) {
+            Matcher m = PARTITION_NAME.matcher(name);
+            if (m.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+            }
+        }
+        return months;
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        if (hasRowsInDefault(from, to)) {
+            log.warn("Секция {} не создана: в {} уже есть строки за [{}; {}). "
+                            + "Перенесите их вручную (detach default, create секции, insert ... select, attach default)",
+                    partitionName(month), DEFAULT_PARTITION, from, to);
+            return;
+        }
+        jdbcTemplate.execute("create table if not exists " + partitionName(month)
+                + " partition of " + PARENT_TABLE
+                + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+        log.info("Создана секция {}", partitionName(month));
+    }
+
+    private boolean hasRowsInDefault(LocalDateTime from, LocalDateTime to) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "select exists (select 1 from " + DEFAULT_PARTITION + " where created_at >= ? and created_at < ?)",
+                Boolean.class, from, to);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private void retirePartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("alter table " + PARENT_TABLE + " detach partition " + name);
+        if (dropExpired) {
+            jdbcTemplate.execute("drop table " + name);
+            log.info("Секция {} отцеплена и удалена", name);
+        } else {
+            jdbcTemplate.execute("create schema if not exists " + ARCHIVE_SCHEMA);
+            jdbcTemplate.execute("alter table " + name + " set schema " + ARCHIVE_SCHEMA);
+            log.info("Секция {} отцеплена и перенесена в {}", name, ARCHIVE_SCHEMA);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_p" + SUFFIX.format(month);
+    }
+}
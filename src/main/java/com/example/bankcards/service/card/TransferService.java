@@ -1,5 +1,7 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.card.TransferBatchRequest;
+import com.example.bankcards.dto.card.TransferBatchResponse;
 import com.example.bankcards.dto.card.TransferRequest;
 import com.example.bankcards.dto.card.TransferResponse;
 
@@ -7,4 +9,8 @@ import java.util.UUID;
 
 public interface TransferService {
     TransferResponse transfer(UUID userId, TransferRequest request);
+
+    TransferResponse transfer(UUID userId, TransferRequest request, String idempotencyKey);
+
+    TransferBatchResponse transferBatch(UUID userId, TransferBatchRequest request);
 }
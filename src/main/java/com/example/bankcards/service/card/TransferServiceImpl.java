@@ -1,46 +1,305 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.card.TransferBatchItemResult;
+import com.example.bankcards.dto.card.TransferBatchRequest;
+import com.example.bankcards.dto.card.TransferBatchResponse;
 import com.example.bankcards.dto.card.TransferRequest;
 import com.example.bankcards.dto.card.TransferResponse;
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.entity.card.TransferIdempotency;
 import com.example.bankcards.entity.card.TransferRecord;
+import com.example.bankcards.metrics.BankMetrics;
 import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.TransferIdempotencyRepository;
 import com.example.bankcards.repository.TransferRecordsRepository;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.repository.projection.TransferBalances;
+import com.example.bankcards.service.common.AdmissionController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
-@Transactional
 public class TransferServiceImpl implements TransferService {
 
+    /**
+     * Порядок блокировки карт: беззнаковое сравнение байтов UUID, как у типа uuid в PostgreSQL.
+     * Тот же порядок дает "order by c.id" в пакетной блокировке, поэтому одиночные переводы
+     * и пакеты захватывают строки в одной глобальной последовательности.
+     */
+    static final Comparator<UUID> LOCK_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    // фазы перевода в bank.transfer.phase: очередь CardLockManager, блокировка строк, проверки, запись
+    static final String PHASE_LOCK_QUEUE = "lock-queue";
+    static final String PHASE_LOCK_ACQUIRE = "lock-acquire";
+    static final String PHASE_VALIDATE = "validate";
+    static final String PHASE_PERSIST = "persist";
+
+    private static final String BATCH = "BATCH";
+
     private final CardsRepository cardsRepository;
     private final TransferRecordsRepository transferRecordsRepository;
+    private final TransferIdempotencyRepository idempotencyRepository;
+    private final TransferIdempotencyCache idempotencyCache;
+    private final CardLockManager cardLocks;
+    private final AdmissionController admission;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferStrategy strategy;
+    private final int optimisticMaxRetries;
+    private final long optimisticBackoffMs;
 
     public TransferServiceImpl(CardsRepository cardsRepository,
-                               TransferRecordsRepository transferRecordsRepository) {
+                               TransferRecordsRepository transferRecordsRepository,
+                               TransferIdempotencyRepository idempotencyRepository,
+                               TransferIdempotencyCache idempotencyCache,
+                               CardLockManager cardLocks,
+                               AdmissionController admission,
+                               MeterRegistry meterRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.transfers.strategy:PESSIMISTIC}") TransferStrategy strategy,
+                               @Value("${app.transfers.optimistic.max-retries:3}") int optimisticMaxRetries,
+                               @Value("${app.transfers.optimistic.backoff-ms:2}") long optimisticBackoffMs) {
+        if (optimisticMaxRetries < 0) {
+            throw new IllegalStateException("app.transfers.optimistic.max-retries должен быть >= 0");
+        }
+        if (optimisticBackoffMs < 0) {
+            throw new IllegalStateException("app.transfers.optimistic.backoff-ms должен быть >= 0");
+        }
         this.cardsRepository = cardsRepository;
         this.transferRecordsRepository = transferRecordsRepository;
+        this.idempotencyRepository = idempotencyRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.cardLocks = cardLocks;
+        this.admission = admission;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.strategy = strategy;
+        this.optimisticMaxRetries = optimisticMaxRetries;
+        this.optimisticBackoffMs = optimisticBackoffMs;
     }
 
+    /**
+     * Транзакция открывается только после очереди CardLockManager (если она включена),
+     * чтобы ожидание конфликтующего перевода не держало соединение из пула.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TransferResponse transfer(UUID userId, TransferRequest req) {
         if (userId == null) throw new IllegalArgumentException("userId is null");
         if (req == null) throw new IllegalArgumentException("request is null");
+        getBigDecimal(req, req.fromCardId(), req.toCardId());
+
+        return withCardLocks(
+                List.of(req.fromCardId(), req.toCardId()),
+                strategy.name(),
+                () -> executeWithStrategy(body -> body.apply(userId, req))
+        );
+    }
+
+    /**
+     * Выполняет перевод выбранной стратегией; attempt получает тело перевода и вызывается в транзакции.
+     * OPTIMISTIC: каждая попытка - отдельная транзакция; при конфликте версий она откатывается,
+     * после паузы со случайной задержкой (full jitter) делается новая попытка.
+     * После optimisticMaxRetries повторов перевод выполняется пессимистично.
+     */
+    private TransferResponse executeWithStrategy(Function<TransferBody, TransferResponse> attempt) {
+        if (strategy == TransferStrategy.ATOMIC) {
+            return transactionTemplate.execute(status -> attempt.apply(this::transferAtomic));
+        }
+        if (strategy == TransferStrategy.OPTIMISTIC) {
+            for (int i = 0; ; i++) {
+                try {
+                    return transactionTemplate.execute(status -> attempt.apply(this::transferOptimistic));
+                } catch (OptimisticConflictException e) {
+                    if (i >= optimisticMaxRetries || !backoff(i)) break;
+                }
+            }
+            log.debug("Оптимистичный перевод: {} повторов исчерпано, переход на блокировки", optimisticMaxRetries);
+        }
+        return transactionTemplate.execute(status -> attempt.apply(this::transferLocked));
+    }
+
+    private boolean backoff(int attempt) {
+        long cap = optimisticBackoffMs << Math.min(attempt, 10);
+        if (cap <= 0) return true;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Очередь CardLockManager (если включена) пишется в bank.transfer.phase как lock-queue.
+     * Допуск AdmissionController берется после очереди, иначе переводы, ждущие горячую карту,
+     * держали бы места, нужные остальным запросам (AdmissionFilter переводы не ограничивает).
+     */
+    private <T> T withCardLocks(Collection<UUID> cardIds, String strategyTag, Supplier<T> lockedAction) {
+        Supplier<T> action = () -> admission.admit(lockedAction);
+        if (!cardLocks.isEnabled()) return cardLocks.withLocks(cardIds, action);
+
+        PhaseClock clock = new PhaseClock(strategyTag);
+        clock.start(PHASE_LOCK_QUEUE);
+        try {
+            return cardLocks.withLocks(cardIds, () -> {
+                clock.stop();
+                return action.get();
+            });
+        } catch (RuntimeException e) {
+            clock.fail(e);
+            throw e;
+        }
+    }
 
+    private <T> T timed(String strategyTag, Function<PhaseClock, T> body) {
+        PhaseClock clock = new PhaseClock(strategyTag);
+        try {
+            T result = body.apply(clock);
+            clock.stop();
+            return result;
+        } catch (RuntimeException e) {
+            clock.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Карты читаются без блокировок, балансы пишутся условным UPDATE по version в порядке LOCK_ORDER.
+     * Сущности карт в контекст не загружаются - для записи о переводе берутся ссылки по id.
+     */
+    private TransferResponse transferOptimistic(UUID userId, TransferRequest req) {
+        return timed(TransferStrategy.OPTIMISTIC.name(), clock -> transferOptimistic(userId, req, clock));
+    }
+
+    private TransferResponse transferOptimistic(UUID userId, TransferRequest req, PhaseClock clock) {
+        clock.start(PHASE_VALIDATE);
         UUID fromId = req.fromCardId();
         UUID toId = req.toCardId();
         BigDecimal amount = getBigDecimal(req, fromId, toId);
 
-        UUID first = (fromId.compareTo(toId) < 0) ? fromId : toId;
+        UUID first = (LOCK_ORDER.compare(fromId, toId) < 0) ? fromId : toId;
         UUID second = first.equals(fromId) ? toId : fromId;
 
+        Map<UUID, CardBalanceView> views = new HashMap<>();
+        for (CardBalanceView v : cardsRepository.findBalanceViews(List.of(first, second), userId)) {
+            views.put(v.id(), v);
+        }
+        if (!views.containsKey(first)) throw new EntityNotFoundException("Карта не найдена: " + first);
+        if (!views.containsKey(second)) throw new EntityNotFoundException("Карта не найдена: " + second);
+
+        CardBalanceView from = views.get(fromId);
+        CardBalanceView to = views.get(toId);
+
+        ensureTransferable(from.id(), from.status(), from.expirationDate());
+        ensureTransferable(to.id(), to.status(), to.expirationDate());
+
+        BigDecimal fromBalance = (from.balance() != null) ? from.balance() : BigDecimal.ZERO;
+        BigDecimal toBalance = (to.balance() != null) ? to.balance() : BigDecimal.ZERO;
+        if (fromBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException("Недостаточно средств");
+        }
+
+        BigDecimal fromAfter = fromBalance.subtract(amount);
+        BigDecimal toAfter = toBalance.add(amount);
+
+        // условный UPDATE - момент захвата строк; здесь ждем конкурентную запись и ловим конфликт версий
+        clock.start(PHASE_LOCK_ACQUIRE);
+        for (UUID id : List.of(first, second)) {
+            CardBalanceView v = views.get(id);
+            BigDecimal balance = id.equals(fromId) ? fromAfter : toAfter;
+            if (cardsRepository.updateBalanceIfVersion(id, v.version(), balance) == 0) {
+                throw new OptimisticConflictException();
+            }
+        }
+
+        clock.start(PHASE_PERSIST);
+        TransferRecord saved = transferRecordsRepository.save(TransferRecord.builder()
+                .fromCard(cardsRepository.getReferenceById(fromId))
+                .toCard(cardsRepository.getReferenceById(toId))
+                .amount(amount)
+                .build());
+
+        return toResponse(saved, fromAfter, toAfter);
+    }
+
+    /**
+     * ATOMIC: списание, зачисление и запись о переводе - один SQL-оператор без загрузки сущностей.
+     * Если условие списания не прошло, тот же перевод повторяется с блокировками в этой транзакции:
+     * он либо сообщает точную причину отказа, либо выполняется, если состояние успело измениться.
+     */
+    private TransferResponse transferAtomic(UUID userId, TransferRequest req) {
+        return timed(TransferStrategy.ATOMIC.name(), clock -> transferAtomic(userId, req, clock));
+    }
+
+    private TransferResponse transferAtomic(UUID userId, TransferRequest req, PhaseClock clock) {
+        clock.start(PHASE_VALIDATE);
+        UUID fromId = req.fromCardId();
+        UUID toId = req.toCardId();
+        BigDecimal amount = getBigDecimal(req, fromId, toId);
+
+        UUID transferId = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        clock.start(PHASE_PERSIST);
+        Optional<TransferBalances> applied = cardsRepository.transferAtomically(
+                userId, fromId, toId, amount, transferId, createdAt, createdAt.toLocalDate());
+        // откат на блокировки пишет свои фазы под PESSIMISTIC
+        clock.stop();
+
+        return applied
+                .map(b -> new TransferResponse(
+                        transferId, fromId, toId, amount, createdAt, b.getFromBalance(), b.getToBalance()))
+                .orElseGet(() -> transferLocked(userId, req));
+    }
+
+    private TransferResponse transferLocked(UUID userId, TransferRequest req) {
+        return timed(TransferStrategy.PESSIMISTIC.name(), clock -> transferLocked(userId, req, clock));
+    }
+
+    private TransferResponse transferLocked(UUID userId, TransferRequest req, PhaseClock clock) {
+        clock.start(PHASE_VALIDATE);
+        UUID fromId = req.fromCardId();
+        UUID toId = req.toCardId();
+        BigDecimal amount = getBigDecimal(req, fromId, toId);
+
+        UUID first = (LOCK_ORDER.compare(fromId, toId) < 0) ? fromId : toId;
+        UUID second = first.equals(fromId) ? toId : fromId;
+
+        clock.start(PHASE_LOCK_ACQUIRE);
         BankCard c1 = cardsRepository.lockByIdAndOwnerId(first, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Карта не найдена: " + first));
         BankCard c2 = cardsRepository.lockByIdAndOwnerId(second, userId)
@@ -49,6 +308,207 @@ public class TransferServiceImpl implements TransferService {
         BankCard from = c1.getId().equals(fromId) ? c1 : c2;
         BankCard to = (from == c1) ? c2 : c1;
 
+        clock.start(PHASE_VALIDATE);
+        applyTransfer(from, to, amount);
+
+        clock.start(PHASE_PERSIST);
+        TransferRecord record = TransferRecord.builder()
+                .fromCard(from)
+                .toCard(to)
+                .amount(amount)
+                .build();
+
+        TransferRecord saved = transferRecordsRepository.save(record);
+
+        return toResponse(saved, from.getBalance(), to.getBalance());
+    }
+
+    /**
+     * Перевод с ключом идемпотентности. Повтор из кэша отвечает без транзакции и блокировок карт.
+     * Иначе ключ занимается в той же транзакции, что и перевод: конкурентный дубль ждет ее фиксации
+     * и получает сохраненный результат, а откат перевода освобождает ключ.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransferResponse transfer(UUID userId, TransferRequest req, String idempotencyKey) {
+        if (userId == null) throw new IllegalArgumentException("userId is null");
+        if (req == null) throw new IllegalArgumentException("request is null");
+
+        String key = normalizeIdempotencyKey(idempotencyKey);
+
+        TransferResponse cached = idempotencyCache.get(userId, key);
+        if (cached != null) {
+            ensureSameRequest(cached.fromCardId(), cached.toCardId(), cached.amount(), req);
+            return cached;
+        }
+
+        getBigDecimal(req, req.fromCardId(), req.toCardId());
+
+        TransferResponse response = withCardLocks(
+                List.of(req.fromCardId(), req.toCardId()),
+                strategy.name(),
+                () -> executeWithStrategy(body -> transferOnce(userId, req, key, body))
+        );
+        idempotencyCache.put(userId, key, response);
+        return response;
+    }
+
+    private TransferResponse transferOnce(UUID userId, TransferRequest req, String key, TransferBody body) {
+        int claimed = idempotencyRepository.claim(
+                UUID.randomUUID(), userId, key, req.fromCardId(), req.toCardId(), req.amount()
+        );
+
+        if (claimed == 0) {
+            TransferIdempotency stored = idempotencyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                    .orElseThrow(() -> new IllegalStateException("Перевод с таким Idempotency-Key еще выполняется"));
+            ensureSameRequest(stored.getFromCardId(), stored.getToCardId(), stored.getAmount(), req);
+            if (stored.getTransferId() == null) {
+                throw new IllegalStateException("Перевод с таким Idempotency-Key еще выполняется");
+            }
+            return new TransferResponse(
+                    stored.getTransferId(),
+                    stored.getFromCardId(),
+                    stored.getToCardId(),
+                    stored.getAmount(),
+                    stored.getTransferCreatedAt(),
+                    stored.getFromBalanceAfter(),
+                    stored.getToBalanceAfter()
+            );
+        }
+
+        TransferResponse response = body.apply(userId, req);
+        idempotencyRepository.complete(
+                userId, key,
+                response.id(),
+                response.fromBalanceAfter(),
+                response.toBalanceAfter(),
+                response.createdAt()
+        );
+        return response;
+    }
+
+    private static String normalizeIdempotencyKey(String idempotencyKey) {
+        String key = (idempotencyKey == null) ? "" : idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key должен быть длиной 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " символов");
+        }
+        return key;
+    }
+
+    private static void ensureSameRequest(UUID fromId, UUID toId, BigDecimal amount, TransferRequest req) {
+        boolean same = fromId.equals(req.fromCardId())
+                && toId.equals(req.toCardId())
+                && req.amount() != null
+                && amount.compareTo(req.amount()) == 0;
+        if (!same) {
+            throw new IllegalStateException("Idempotency-Key уже использован для другого перевода");
+        }
+    }
+
+    /**
+     * Пакет переводов в одной транзакции: все карты пакета блокируются одним запросом,
+     * балансы меняются в памяти, записи о переводах уходят JDBC-батчем при flush.
+     * Ошибочный элемент не прерывает пакет, а попадает в результат со статусом REJECTED.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransferBatchResponse transferBatch(UUID userId, TransferBatchRequest req) {
+        if (userId == null) throw new IllegalArgumentException("userId is null");
+        if (req == null || req.items() == null || req.items().isEmpty()) {
+            throw new IllegalArgumentException("Пакет переводов пуст");
+        }
+
+        List<TransferRequest> items = req.items();
+        return withCardLocks(
+                batchCardIds(items),
+                BATCH,
+                () -> transactionTemplate.execute(status -> transferBatchLocked(userId, items))
+        );
+    }
+
+    private TransferBatchResponse transferBatchLocked(UUID userId, List<TransferRequest> items) {
+        return timed(BATCH, clock -> transferBatchLocked(userId, items, clock));
+    }
+
+    private TransferBatchResponse transferBatchLocked(UUID userId, List<TransferRequest> items, PhaseClock clock) {
+        clock.start(PHASE_LOCK_ACQUIRE);
+        Map<UUID, BankCard> cards = lockBatchCards(userId, items);
+
+        clock.start(PHASE_VALIDATE);
+
+        TransferBatchItemResult[] results = new TransferBatchItemResult[items.size()];
+        List<TransferRecord> records = new ArrayList<>(items.size());
+        List<Integer> recordPositions = new ArrayList<>(items.size());
+        List<BigDecimal[]> balancesAfter = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            TransferRequest item = items.get(i);
+            try {
+                if (item == null) throw new IllegalArgumentException("request is null");
+
+                BigDecimal amount = getBigDecimal(item, item.fromCardId(), item.toCardId());
+                BankCard from = lockedCard(cards, item.fromCardId());
+                BankCard to = lockedCard(cards, item.toCardId());
+
+                applyTransfer(from, to, amount);
+
+                records.add(TransferRecord.builder()
+                        .fromCard(from)
+                        .toCard(to)
+                        .amount(amount)
+                        .build());
+                recordPositions.add(i);
+                balancesAfter.add(new BigDecimal[]{from.getBalance(), to.getBalance()});
+            } catch (IllegalArgumentException | IllegalStateException | EntityNotFoundException e) {
+                results[i] = TransferBatchItemResult.rejected(i, e.getMessage());
+            }
+        }
+
+        clock.start(PHASE_PERSIST);
+        List<TransferRecord> saved = records.isEmpty()
+                ? List.of()
+                : transferRecordsRepository.saveAll(records);
+
+        for (int k = 0; k < saved.size(); k++) {
+            int index = recordPositions.get(k);
+            BigDecimal[] balances = balancesAfter.get(k);
+            results[index] = TransferBatchItemResult.applied(index, toResponse(saved.get(k), balances[0], balances[1]));
+        }
+
+        return new TransferBatchResponse(saved.size(), items.size() - saved.size(), List.of(results));
+    }
+
+    private static Set<UUID> batchCardIds(List<TransferRequest> items) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (TransferRequest item : items) {
+            if (item == null) continue;
+            if (item.fromCardId() != null) ids.add(item.fromCardId());
+            if (item.toCardId() != null) ids.add(item.toCardId());
+        }
+        return ids;
+    }
+
+    private Map<UUID, BankCard> lockBatchCards(UUID userId, List<TransferRequest> items) {
+        Set<UUID> ids = batchCardIds(items);
+
+        Map<UUID, BankCard> cards = new HashMap<>();
+        if (ids.isEmpty()) return cards;
+
+        List<UUID> ordered = ids.stream().sorted(LOCK_ORDER).toList();
+        for (BankCard card : cardsRepository.lockAllByIdsAndOwnerId(ordered, userId)) {
+            cards.put(card.getId(), card);
+        }
+        return cards;
+    }
+
+    private static BankCard lockedCard(Map<UUID, BankCard> cards, UUID id) {
+        BankCard card = cards.get(id);
+        if (card == null) throw new EntityNotFoundException("Карта не найдена: " + id);
+        return card;
+    }
+
+    private void applyTransfer(BankCard from, BankCard to, BigDecimal amount) {
         ensureTransferable(from);
         ensureTransferable(to);
 
@@ -61,16 +521,6 @@ public class TransferServiceImpl implements TransferService {
 
         from.setBalance(from.getBalance().subtract(amount));
         to.setBalance(to.getBalance().add(amount));
-
-        TransferRecord record = TransferRecord.builder()
-                .fromCard(from)
-                .toCard(to)
-                .amount(amount)
-                .build();
-
-        TransferRecord saved = transferRecordsRepository.save(record);
-
-        return toResponse(saved, from.getBalance(), to.getBalance());
     }
 
     private static @NonNull BigDecimal getBigDecimal(TransferRequest req, UUID fromId, UUID toId) {
@@ -91,12 +541,15 @@ public class TransferServiceImpl implements TransferService {
     }
 
     private void ensureTransferable(BankCard card) {
-        if (card.getStatus() != BankCardStatus.ACTIVE) {
-            throw new IllegalStateException("Карта не в статусе ACTIVE: " + card.getId());
+        ensureTransferable(card.getId(), card.getStatus(), card.getExpirationDate());
+    }
+
+    private static void ensureTransferable(UUID id, BankCardStatus status, LocalDate exp) {
+        if (status == BankCardStatus.EXPIRED || (exp != null && exp.isBefore(LocalDate.now()))) {
+            throw new IllegalStateException("Карта просрочена: " + id);
         }
-        LocalDate exp = card.getExpirationDate();
-        if (exp != null && exp.isBefore(LocalDate.now())) {
-            throw new IllegalStateException("Карта просрочена: " + card.getId());
+        if (status != BankCardStatus.ACTIVE) {
+            throw new IllegalStateException("Карта не в статусе ACTIVE: " + id);
         }
     }
 
@@ -113,4 +566,51 @@ public class TransferServiceImpl implements TransferService {
                 toBalanceAfter
         );
     }
+
+    /** Версия карты изменилась между чтением и условным UPDATE - попытка откатывается и повторяется. */
+    private static final class OptimisticConflictException extends RuntimeException {
+        OptimisticConflictException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Секундомер фаз одного перевода: start закрывает предыдущую фазу как успешную,
+     * fail - текущую с тегом исключения.
+     */
+    private final class PhaseClock {
+        private final String strategyTag;
+        private String phase;
+        private long startNanos;
+
+        PhaseClock(String strategyTag) {
+            this.strategyTag = strategyTag;
+        }
+
+        void start(String next) {
+            stop();
+            phase = next;
+            startNanos = System.nanoTime();
+        }
+
+        void stop() {
+            finish(null);
+        }
+
+        void fail(Throwable error) {
+            finish(error);
+        }
+
+        private void finish(Throwable error) {
+            if (phase == null) return;
+            BankMetrics.record(meterRegistry, BankMetrics.TRANSFER_PHASE,
+                    Tags.of("phase", phase, "strategy", strategyTag), startNanos, error);
+            phase = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TransferBody {
+        TransferResponse apply(UUID userId, TransferRequest req);
+    }
 }
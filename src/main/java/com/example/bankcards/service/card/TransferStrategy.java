@@ -0,0 +1,13 @@
+package com.example.bankcards.service.card;
+
+/**
+ * Способ согласования конкурентных переводов (app.transfers.strategy).
+ */
+public enum TransferStrategy {
+    /** SELECT ... FOR UPDATE обеих карт в порядке LOCK_ORDER. */
+    PESSIMISTIC,
+    /** Чтение без блокировок, условный UPDATE по version, повтор с backoff, затем PESSIMISTIC. */
+    OPTIMISTIC,
+    /** Один CTE-оператор: блокировка обеих строк, условное списание, зачисление и запись о переводе. */
+    ATOMIC
+}
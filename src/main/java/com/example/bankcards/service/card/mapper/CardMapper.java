@@ -3,6 +3,7 @@ package com.example.bankcards.service.card.mapper;
 import com.example.bankcards.dto.card.CardResponse;
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.repository.projection.CardView;
 import com.example.bankcards.util.CardStatusUtil;
 
 import java.time.LocalDate;
@@ -23,4 +24,15 @@ public final class CardMapper {
                 c.getOwner().getId()
         );
     }
+
+    public static CardResponse toResponse(CardView v, LocalDate today) {
+        return new CardResponse(
+                v.id(),
+                v.maskedCardNumber(),
+                v.expirationDate(),
+                v.balance(),
+                CardStatusUtil.effectiveStatus(v.status(), v.expirationDate(), today),
+                v.ownerId()
+        );
+    }
 }
@@ -0,0 +1,56 @@
+package com.example.bankcards.service.card.spec;
+
+import com.example.bankcards.repository.projection.CardView;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Позиция в keyset-пагинации карт: значение ключа сортировки и id последней карты среза.
+ * Наружу отдается непрозрачным base64url-токеном.
+ */
+public record CardCursor(String property, Sort.Direction direction, String value, UUID id) {
+
+    public static final Set<String> SORT_PROPERTIES = Set.of("id", "expirationDate", "balance");
+
+    private static final String SEPARATOR = "|";
+
+    public static CardCursor of(CardView card, Sort.Order order) {
+        String value = switch (order.getProperty()) {
+            case "id" -> "";
+            case "expirationDate" -> card.expirationDate().toString();
+            case "balance" -> card.balance().toPlainString();
+            default -> throw new IllegalArgumentException("Недопустимое поле сортировки: " + order.getProperty());
+        };
+        return new CardCursor(order.getProperty(), order.getDirection(), value, card.id());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, property, direction.name(), value, id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CardCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !SORT_PROPERTIES.contains(parts[0])) {
+                throw new IllegalArgumentException("Некорректный cursor");
+            }
+            switch (parts[0]) {
+                case "expirationDate" -> LocalDate.parse(parts[2]);
+                case "balance" -> new BigDecimal(parts[2]);
+                default -> { }
+            }
+            return new CardCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[2], UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Некорректный cursor");
+        }
+    }
+}
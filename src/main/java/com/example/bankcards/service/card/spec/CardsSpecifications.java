@@ -2,8 +2,12 @@ package com.example.bankcards.service.card.spec;
 
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -20,23 +24,25 @@ public final class CardsSpecifications {
         return (root, query, cb) -> cb.equal(root.get("owner").get("id"), ownerId);
     }
 
+    /**
+     * EXPIRED хранится в status (CardExpirationSweeper), поэтому фильтр - равенство по индексу (user_id, status).
+     * Условие по дате закрывает окно до следующего прохода sweeper'а: только что истекшая карта
+     * уже не попадает в ACTIVE/BLOCKED и уже попадает в EXPIRED.
+     */
     public static Specification<BankCard> statusWithExpiration(BankCardStatus status, LocalDate today) {
         if (status == null) return null;
         LocalDate d = (today != null) ? today : LocalDate.now();
 
         if (status == BankCardStatus.EXPIRED) {
-            return (root, query, cb) -> cb.and(
-                    cb.isNotNull(root.get("expirationDate")),
+            return (root, query, cb) -> cb.or(
+                    cb.equal(root.get("status"), BankCardStatus.EXPIRED),
                     cb.lessThan(root.get("expirationDate"), d)
             );
         }
 
         return (root, query, cb) -> cb.and(
                 cb.equal(root.get("status"), status),
-                cb.or(
-                        cb.isNull(root.get("expirationDate")),
-                        cb.greaterThanOrEqualTo(root.get("expirationDate"), d)
-                )
+                cb.greaterThanOrEqualTo(root.get("expirationDate"), d)
         );
     }
 
@@ -45,6 +51,48 @@ public final class CardsSpecifications {
         String s = last4.trim();
         if (s.isEmpty()) return null;
 
-        return (root, query, cb) -> cb.like(root.get("maskedCardNumber"), "%" + s);
+        return (root, query, cb) -> cb.equal(root.get("panLast4"), s);
+    }
+
+    /**
+     * Keyset по id для обхода чанками в порядке id.
+     */
+    public static Specification<BankCard> idAfter(UUID id) {
+        if (id == null) return null;
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Keyset-условие "после курсора": (key, id) строго дальше последней карты среза
+     * в направлении сортировки. Сортировка запроса должна быть (key, id) в том же направлении.
+     */
+    public static Specification<BankCard> after(CardCursor cursor) {
+        if (cursor == null) return null;
+        boolean asc = cursor.direction().isAscending();
+
+        return (root, query, cb) -> {
+            Predicate idAfter = beyond(cb, root.<UUID>get("id"), cursor.id(), asc);
+
+            return switch (cursor.property()) {
+                case "expirationDate" -> keyAfter(cb, root.<LocalDate>get("expirationDate"),
+                        LocalDate.parse(cursor.value()), idAfter, asc);
+                case "balance" -> keyAfter(cb, root.<BigDecimal>get("balance"),
+                        new BigDecimal(cursor.value()), idAfter, asc);
+                default -> idAfter;
+            };
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate keyAfter(
+            CriteriaBuilder cb, Expression<Y> key, Y value, Predicate idAfter, boolean asc) {
+        return cb.or(
+                beyond(cb, key, value, asc),
+                cb.and(cb.equal(key, value), idAfter)
+        );
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate beyond(
+            CriteriaBuilder cb, Expression<Y> key, Y value, boolean asc) {
+        return asc ? cb.greaterThan(key, value) : cb.lessThan(key, value);
     }
 }
@@ -0,0 +1,46 @@
+package com.example.bankcards.service.card.spec;
+
+import com.example.bankcards.repository.projection.TransferView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в истории переводов карты: (createdAt, id) последней записи среза.
+ * Наружу отдается непрозрачным base64url-токеном.
+ */
+public record TransferCursor(LocalDateTime createdAt, UUID id) {
+
+    /** Позиция "до начала": строго больше любой реальной записи. */
+    public static final TransferCursor START = new TransferCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L)
+    );
+
+    private static final String SEPARATOR = "|";
+
+    public static TransferCursor of(TransferView transfer) {
+        return new TransferCursor(transfer.createdAt(), transfer.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransferCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Некорректный cursor");
+            }
+            return new TransferCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Некорректный cursor");
+        }
+    }
+}
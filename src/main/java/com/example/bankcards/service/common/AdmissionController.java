@@ -0,0 +1,125 @@
+package com.example.bankcards.service.common;
+
+import com.example.bankcards.dto.monitoring.AdmissionStatsResponse;
+import com.example.bankcards.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Допуск запросов к транзакционным сервисам: одновременно выполняется не больше запросов,
+ * чем соединений в пуле, остальные ждут на семафоре. С виртуальными потоками ожидание дешевое,
+ * и тысячи клиентов паркуются здесь, а не падают по таймауту getConnection в Hikari.
+ * Очередь ограничена max-queue и wait-ms - сверх этого запрос сразу получает 503.
+ */
+@Component
+public class AdmissionController {
+
+    private final boolean enabled;
+    private final boolean virtualThreads;
+    private final int permits;
+    private final int maxQueue;
+    private final long waitNanos;
+    private final Semaphore semaphore;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public AdmissionController(
+            @Value("${app.admission.enabled:false}") boolean enabled,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${app.admission.max-concurrent:0}") int maxConcurrent,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.admission.max-queue:10000}") int maxQueue,
+            @Value("${app.admission.wait-ms:10000}") long waitMs
+    ) {
+        int resolved = (maxConcurrent > 0) ? maxConcurrent : poolSize;
+        if (resolved <= 0) {
+            throw new IllegalStateException("app.admission.max-concurrent должен быть > 0");
+        }
+        if (maxQueue < 0) {
+            throw new IllegalStateException("app.admission.max-queue должен быть >= 0");
+        }
+        if (waitMs < 0) {
+            throw new IllegalStateException("app.admission.wait-ms должен быть >= 0");
+        }
+        this.enabled = enabled;
+        this.virtualThreads = virtualThreads;
+        this.permits = resolved;
+        this.maxQueue = maxQueue;
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+        this.semaphore = new Semaphore(resolved, true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ждет допуска; после успешного вызова обязателен release().
+     */
+    public void acquire() {
+        if (semaphore.tryAcquire()) {
+            admitted.increment();
+            return;
+        }
+
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new ServiceOverloadedException("Сервис перегружен, повторите позже");
+        }
+        try {
+            if (!semaphore.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                rejected.increment();
+                throw new ServiceOverloadedException("Сервис перегружен, повторите позже");
+            }
+            admitted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new ServiceOverloadedException("Ожидание допуска запроса прервано");
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * Выполняет action с допуском (если контроль включен). Для путей, которые AdmissionFilter пропускает:
+     * переводы берут допуск уже после очереди CardLockManager, только на время транзакции.
+     */
+    public <T> T admit(Supplier<T> action) {
+        if (!enabled) return action.get();
+        acquire();
+        try {
+            return action.get();
+        } finally {
+            release();
+        }
+    }
+
+    public AdmissionStatsResponse stats() {
+        return new AdmissionStatsResponse(
+                enabled,
+                virtualThreads,
+                permits,
+                permits - semaphore.availablePermits(),
+                queued.get(),
+                admitted.sum(),
+                rejected.sum(),
+                timeouts.sum()
+        );
+    }
+}
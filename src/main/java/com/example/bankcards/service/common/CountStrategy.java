@@ -0,0 +1,15 @@
+package com.example.bankcards.service.common;
+
+/**
+ * Как считать totalElements для постраничных списков.
+ */
+public enum CountStrategy {
+    /** count(*) на каждый запрос страницы. */
+    EXACT,
+    /** Оценка планировщика: reltuples из pg_class или число строк из EXPLAIN для запроса с фильтрами. */
+    ESTIMATED,
+    /** Точный count(*), закэшированный по сигнатуре фильтра на короткий TTL. */
+    CACHED;
+
+    public static final String HEADER = "X-Total-Count-Strategy";
+}
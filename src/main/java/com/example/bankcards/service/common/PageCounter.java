@@ -0,0 +1,79 @@
+package com.example.bankcards.service.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * totalElements для постраничных списков по выбранной CountStrategy.
+ * Кэш CACHED - по сигнатуре фильтра (таблица + значения фильтров), с коротким TTL;
+ * при переполнении сначала выбрасываются протухшие записи, затем весь кэш.
+ */
+@Component
+public class PageCounter {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    public PageCounter(
+            @Value("${app.paging.count.cache-ttl-ms:10000}") long ttlMs,
+            @Value("${app.paging.count.cache-max-entries:1000}") int maxEntries
+    ) {
+        if (ttlMs <= 0) {
+            throw new IllegalStateException("app.paging.count.cache-ttl-ms должен быть > 0");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalStateException("app.paging.count.cache-max-entries должен быть > 0");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+    }
+
+    public long count(CountStrategy strategy, String signature, LongSupplier exact, LongSupplier estimate) {
+        return switch (strategy) {
+            case EXACT -> exact.getAsLong();
+            case ESTIMATED -> estimate.getAsLong();
+            case CACHED -> cached(signature, exact);
+        };
+    }
+
+    /**
+     * PageImpl урезает total меньше offset + size до уже прочитанного, и заниженная оценка ESTIMATED
+     * (селективный фильтр) превращала полную страницу в последнюю. Для полной страницы total
+     * поднимается до offset + size + 1: следующая страница есть или оказывается пустой.
+     */
+    public static <T> Page<T> keepNextPage(Page<T> page, CountStrategy strategy) {
+        Pageable pageable = page.getPageable();
+        if (strategy != CountStrategy.ESTIMATED || pageable.isUnpaged() || page.hasNext()
+                || page.getNumberOfElements() < pageable.getPageSize()) {
+            return page;
+        }
+        return new PageImpl<>(page.getContent(), pageable, pageable.getOffset() + page.getNumberOfElements() + 1);
+    }
+
+    private long cached(String signature, LongSupplier exact) {
+        long now = System.nanoTime();
+        Cached hit = cache.get(signature);
+        if (hit != null && now - hit.expiresAt() < 0) {
+            return hit.total();
+        }
+
+        long total = exact.getAsLong();
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(c -> now - c.expiresAt() >= 0);
+            if (cache.size() >= maxEntries) cache.clear();
+        }
+        cache.put(signature, new Cached(total, now + ttlNanos));
+        return total;
+    }
+
+    private record Cached(long total, long expiresAt) {}
+}
@@ -1,18 +1,27 @@
 package com.example.bankcards.service.user;
 
 import com.example.bankcards.dto.user.*;
+import com.example.bankcards.service.common.CountStrategy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.UUID;
 
 public interface UsersService {
     UserResponse create(UserCreateRequest req);
 
-    Page<UserResponse> getAll(Pageable pageable);
+    Page<UserResponse> getAll(Pageable pageable, CountStrategy count);
     void delete(UUID userId);
 
     void resetPassword(UUID userId, AdminPasswordResetRequest req);
     UserResponse updateEnabled(UUID userId, UserEnabledUpdateRequest req);
     UserResponse updateRole(UUID userId, UserRoleUpdateRequest req);
+
+    /**
+     * Блокирует учетную запись на lockDuration после серии неверных паролей;
+     * неизвестный или уже заблокированный email - без изменений.
+     */
+    void lockAfterFailedLogins(String email, Duration lockDuration);
+    UserResponse unlock(UUID userId);
 }
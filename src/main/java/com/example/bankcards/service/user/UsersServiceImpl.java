@@ -3,18 +3,29 @@ package com.example.bankcards.service.user;
 import com.example.bankcards.dto.user.*;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.entity.user.UserRole;
+import com.example.bankcards.entity.user.UserTombstone;
 import com.example.bankcards.repository.CardsRepository;   // ✅ добавили
+import com.example.bankcards.repository.RowCountEstimator;
+import com.example.bankcards.repository.UserTombstonesRepository;
 import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.security.UserSecurityChangedEvent;
+import com.example.bankcards.service.common.CountStrategy;
+import com.example.bankcards.service.common.PageCounter;
 import com.example.bankcards.service.user.mapper.UserMapper;
 import com.example.bankcards.util.EmailNormalizer;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -25,6 +36,10 @@ public class UsersServiceImpl implements UsersService {
     private final UsersRepository usersRepository;
     private final CardsRepository cardsRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageCounter pageCounter;
+    private final RowCountEstimator rowCountEstimator;
+    private final UserTombstonesRepository tombstonesRepository;
 
     @Override
     public UserResponse create(UserCreateRequest req) {
@@ -53,9 +68,13 @@ public class UsersServiceImpl implements UsersService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<UserResponse> getAll(Pageable pageable) {
-        return usersRepository.findAll(pageable)
-                .map(UserMapper::toDto);
+    public Page<UserResponse> getAll(Pageable pageable, CountStrategy count) {
+        List<UserResponse> content = usersRepository.findPage(pageable).stream()
+                .map(UserMapper::toDto)
+                .toList();
+
+        return PageCounter.keepNextPage(PageableExecutionUtils.getPage(content, pageable, () -> pageCounter.count(
+                count, "users", usersRepository::count, () -> rowCountEstimator.estimateTable("users"))), count);
     }
 
     @Override
@@ -68,8 +87,10 @@ public class UsersServiceImpl implements UsersService {
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден: " + userId));
 
         user.setRole(req.role());
+        user.bumpTokenVersion();
 
         AppUser saved = usersRepository.save(user);
+        publishSecurityChanged(saved);
 
         return UserMapper.toDto(saved);
     }
@@ -86,6 +107,32 @@ public class UsersServiceImpl implements UsersService {
         user.setEnabled(req.enabled());
 
         AppUser saved = usersRepository.save(user);
+        publishSecurityChanged(saved);
+
+        return UserMapper.toDto(saved);
+    }
+
+    @Override
+    public void lockAfterFailedLogins(String email, Duration lockDuration) {
+        LocalDateTime until = LocalDateTime.now().plus(lockDuration);
+        usersRepository.findByEmailLower(EmailNormalizer.normalize(email))
+                .filter(AppUser::isAccountNonLocked)
+                .ifPresent(user -> {
+                    user.lockUntil(until);
+                    // токены не отзываются, поэтому событие не публикуется
+                    usersRepository.save(user);
+                });
+    }
+
+    @Override
+    public UserResponse unlock(UUID userId) {
+        AppUser user = usersRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден: " + userId));
+
+        user.unlock();
+
+        AppUser saved = usersRepository.save(user);
+        publishSecurityChanged(saved);
 
         return UserMapper.toDto(saved);
     }
@@ -100,8 +147,10 @@ public class UsersServiceImpl implements UsersService {
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден: " + userId));
 
         user.setPasswordHash(passwordEncoder.encode(req.newPassword()));
+        user.bumpTokenVersion();
 
         usersRepository.save(user);
+        publishSecurityChanged(user);
     }
 
     @Override
@@ -117,6 +166,20 @@ public class UsersServiceImpl implements UsersService {
         AppUser user = usersRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь не найден: " + userId));
 
+        // отметка фиксируется вместе с удалением: по ней токены отклоняют остальные инстансы
+        tombstonesRepository.save(new UserTombstone(userId, LocalDateTime.now()));
         usersRepository.delete(user);
+        publishSecurityChanged(user, true);
+    }
+
+    private void publishSecurityChanged(AppUser user) {
+        publishSecurityChanged(user, false);
+    }
+
+    private void publishSecurityChanged(AppUser user, boolean deleted) {
+        boolean revoked = !user.isTokenAccessAllowed();
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(
+                user.getId(), user.getEmail(), user.getTokenVersion(), revoked, deleted
+        ));
     }
 }
@@ -0,0 +1,37 @@
+package com.example.bankcards.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Имена атрибутов спанов (по соглашениям OpenTelemetry) и общие помощники.
+ * Спаны не экспортируются наружу - их собирает SlowTraceRecorder.
+ */
+public final class BankTracing {
+
+    public static final String INSTRUMENTATION = "bank-cards";
+
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    public static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    public static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+    public static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+    public static final AttributeKey<String> EXCEPTION_TYPE = AttributeKey.stringKey("exception.type");
+
+    private BankTracing() {
+    }
+
+    /** Tracer из контекста, а без него (например, в срезах @WebMvcTest) - no-op. */
+    public static Tracer tracerOrNoop(ObjectProvider<Tracer> tracer) {
+        return tracer.getIfAvailable(() -> OpenTelemetry.noop().getTracer(INSTRUMENTATION));
+    }
+
+    /** Только тип исключения, без стека: ошибки 4xx частые, а буфер медленных трасс держится в памяти. */
+    public static void markError(Span span, Throwable error) {
+        span.setStatus(StatusCode.ERROR);
+        span.setAttribute(EXCEPTION_TYPE, error.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.bankcards.tracing;
+
+import com.example.bankcards.dto.monitoring.SlowTraceResponse;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вместо экспортера: спаны запросов к отслеживаемым путям копятся по traceId до завершения
+ * корневого HTTP-спана. Если запрос дольше порога, дерево спанов попадает в кольцевой буфер
+ * (старые трассы вытесняются), иначе отбрасывается. Остальные запросы отсекает sampler() еще до создания спанов.
+ */
+@Component
+public class SlowTraceRecorder implements SpanProcessor {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int maxPendingTraces;
+    private final WatchedPathSampler watchedPaths;
+    private final Sampler sampler;
+
+    private final Map<String, Queue<SpanData>> pending = new ConcurrentHashMap<>();
+    private final SlowTraceResponse[] ring;
+    private int next;
+
+    public SlowTraceRecorder(
+            @Value("${app.tracing.enabled:true}") boolean enabled,
+            @Value("${app.tracing.slow.threshold-ms:500}") long thresholdMs,
+            @Value("${app.tracing.slow.buffer-size:100}") int bufferSize,
+            @Value("${app.tracing.slow.max-pending-traces:10000}") int maxPendingTraces,
+            @Value("${app.tracing.slow.paths:/api/transfers,/api/cards,/api/admin/cards}") String[] paths
+    ) {
+        if (thresholdMs < 0) {
+            throw new IllegalStateException("app.tracing.slow.threshold-ms должен быть >= 0");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalStateException("app.tracing.slow.buffer-size должен быть > 0");
+        }
+        if (maxPendingTraces <= 0) {
+            throw new IllegalStateException("app.tracing.slow.max-pending-traces должен быть > 0");
+        }
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.maxPendingTraces = maxPendingTraces;
+        this.watchedPaths = new WatchedPathSampler(paths);
+        this.sampler = enabled ? Sampler.parentBased(watchedPaths) : Sampler.alwaysOff();
+        this.ring = new SlowTraceResponse[bufferSize];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Семплер для SdkTracerProvider: спаны запросов вне app.tracing.slow.paths не создаются вовсе. */
+    public Sampler sampler() {
+        return sampler;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        if (span.getParentSpanContext().isValid() || !watchedPaths.isWatched(span.getAttribute(BankTracing.URL_PATH))) return;
+
+        if (pending.size() >= maxPendingTraces) {
+            // корневые спаны, которые так и не завершились, не должны копиться бесконечно
+            pending.clear();
+        }
+        pending.put(span.getSpanContext().getTraceId(), new ConcurrentLinkedQueue<>());
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        boolean root = !span.getParentSpanContext().isValid();
+
+        Queue<SpanData> spans = root ? pending.remove(traceId) : pending.get(traceId);
+        if (spans == null) return;
+
+        if (!root) {
+            spans.add(span.toSpanData());
+            return;
+        }
+        if (span.getLatencyNanos() >= thresholdNanos) {
+            store(toResponse(span.toSpanData(), spans));
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /** Последние медленные трассы, новые первыми. */
+    public synchronized List<SlowTraceResponse> recent(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit должен быть > 0");
+
+        List<SlowTraceResponse> result = new ArrayList<>(Math.min(limit, ring.length));
+        for (int i = 1; i <= ring.length && result.size() < limit; i++) {
+            SlowTraceResponse trace = ring[Math.floorMod(next - i, ring.length)];
+            if (trace == null) break;
+            result.add(trace);
+        }
+        return result;
+    }
+
+    private synchronized void store(SlowTraceResponse trace) {
+        ring[next] = trace;
+        next = (next + 1) % ring.length;
+    }
+
+    private static SlowTraceResponse toResponse(SpanData root, Collection<SpanData> spans) {
+        Map<String, List<SpanData>> children = new HashMap<>();
+        for (SpanData span : spans) {
+            children.computeIfAbsent(span.getParentSpanId(), k -> new ArrayList<>()).add(span);
+        }
+
+        long origin = root.getStartEpochNanos();
+        return new SlowTraceResponse(
+                root.getTraceId(),
+                root.getName(),
+                Instant.ofEpochSecond(0, origin),
+                toMs(root.getEndEpochNanos() - origin),
+                toNode(root, children, origin)
+        );
+    }
+
+    private static SlowTraceResponse.SpanNode toNode(SpanData span, Map<String, List<SpanData>> children, long origin) {
+        List<SlowTraceResponse.SpanNode> nested = children.getOrDefault(span.getSpanId(), List.of()).stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .map(child -> toNode(child, children, origin))
+                .toList();
+
+        List<SlowTraceResponse.SpanEvent> events = new ArrayList<>(span.getEvents().size());
+        for (EventData event : span.getEvents()) {
+            events.add(new SlowTraceResponse.SpanEvent(
+                    event.getName(), toMs(event.getEpochNanos() - origin), toMap(event.getAttributes())));
+        }
+
+        return new SlowTraceResponse.SpanNode(
+                span.getName(),
+                toMs(span.getStartEpochNanos() - origin),
+                toMs(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                span.getStatus().getStatusCode() == StatusCode.ERROR,
+                toMap(span.getAttributes()),
+                events,
+                nested
+        );
+    }
+
+    private static Map<String, String> toMap(Attributes attributes) {
+        Map<String, String> map = new LinkedHashMap<>();
+        attributes.forEach((key, value) -> map.put(key.getKey(), String.valueOf(value)));
+        return map;
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / NANOS_PER_MS;
+    }
+}
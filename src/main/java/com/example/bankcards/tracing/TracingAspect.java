@@ -0,0 +1,69 @@
+package com.example.bankcards.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Спаны вокруг публичных методов сервисов и каждого вызова репозитория.
+ * Спан сервиса открывается снаружи @Transactional, поэтому tx.begin/tx.commit
+ * (TransactionTracingListener) и запросы к БД оказываются внутри него.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingAspect {
+
+    private final Tracer tracer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public TracingAspect(ObjectProvider<Tracer> tracer) {
+        this.tracer = BankTracing.tracerOrNoop(tracer);
+    }
+
+    @Around("execution(public * com.example.bankcards.service..*ServiceImpl.*(..))")
+    public Object traceService(ProceedingJoinPoint pjp) throws Throwable {
+        String name = pjp.getSignature().getDeclaringType().getSimpleName() + "." + pjp.getSignature().getName();
+        return inSpan(pjp, tracer.spanBuilder(name).startSpan());
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint pjp) throws Throwable {
+        String name = repositoryName(pjp.getTarget()) + "." + pjp.getSignature().getName();
+        return inSpan(pjp, tracer.spanBuilder(name).setSpanKind(SpanKind.CLIENT).startSpan());
+    }
+
+    private static Object inSpan(ProceedingJoinPoint pjp, Span span) throws Throwable {
+        try (Scope ignored = span.makeCurrent()) {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            BankTracing.markError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /** Унаследованные методы (save, findById) объявлены в CrudRepository - имя берется из интерфейса прокси. */
+    private String repositoryName(Object target) {
+        return repositoryNames.computeIfAbsent(target.getClass(), type -> {
+            for (Class<?> iface : AopProxyUtils.proxiedUserInterfaces(target)) {
+                if (Repository.class.isAssignableFrom(iface)) return iface.getSimpleName();
+            }
+            return type.getSimpleName();
+        });
+    }
+}
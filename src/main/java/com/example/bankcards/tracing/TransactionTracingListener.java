@@ -0,0 +1,68 @@
+package com.example.bankcards.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Спаны tx.begin, tx.commit и tx.rollback; Spring Boot сам подключает бин к менеджеру транзакций.
+ * В tx.begin входит получение соединения из пула Hikari, в tx.commit - COMMIT с fsync журнала,
+ * так что по ним видно ожидание пула и фиксации отдельно от запросов.
+ */
+@Component
+public class TransactionTracingListener implements TransactionExecutionListener {
+
+    private final Tracer tracer;
+    private final Map<TransactionExecution, Span> open = new ConcurrentHashMap<>();
+
+    public TransactionTracingListener(ObjectProvider<Tracer> tracer) {
+        this.tracer = BankTracing.tracerOrNoop(tracer);
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        start(transaction, "tx.begin");
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        end(transaction, beginFailure);
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        start(transaction, "tx.commit");
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        end(transaction, commitFailure);
+    }
+
+    @Override
+    public void beforeRollback(TransactionExecution transaction) {
+        start(transaction, "tx.rollback");
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        end(transaction, rollbackFailure);
+    }
+
+    private void start(TransactionExecution transaction, String name) {
+        open.put(transaction, tracer.spanBuilder(name).startSpan());
+    }
+
+    private void end(TransactionExecution transaction, Throwable failure) {
+        Span span = open.remove(transaction);
+        if (span == null) return;
+        if (failure != null) BankTracing.markError(span, failure);
+        span.end();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bankcards.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Семплер корневых спанов: записываются только запросы к отслеживаемым путям (app.tracing.slow.paths),
+ * остальные не создают ни спанов, ни атрибутов. Дочерние спаны наследуют решение корня
+ * через Sampler.parentBased (см. SlowTraceRecorder.sampler).
+ */
+class WatchedPathSampler implements Sampler {
+
+    private final String[] prefixes;
+
+    WatchedPathSampler(String[] paths) {
+        this.prefixes = Arrays.stream(paths).map(String::trim).filter(p -> !p.isEmpty()).toArray(String[]::new);
+    }
+
+    boolean isWatched(String path) {
+        if (path == null) return false;
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks
+    ) {
+        return isWatched(attributes.get(BankTracing.URL_PATH)) ? SamplingResult.recordAndSample() : SamplingResult.drop();
+    }
+
+    @Override
+    public String getDescription() {
+        return "WatchedPathSampler" + Arrays.toString(prefixes);
+    }
+}
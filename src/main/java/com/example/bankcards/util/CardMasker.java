@@ -5,6 +5,10 @@ public final class CardMasker {
     private CardMasker() {}
 
     public static String mask(String panNormalized) {
+        return "**** **** **** " + last4(panNormalized);
+    }
+
+    public static String last4(String panNormalized) {
         if (panNormalized == null) {
             throw new IllegalArgumentException("PAN is null");
         }
@@ -12,7 +16,6 @@ public final class CardMasker {
         if (pan.length() < 4) {
             throw new IllegalArgumentException("PAN must have at least 4 digits");
         }
-        String last4 = pan.substring(pan.length() - 4);
-        return "**** **** **** " + last4;
+        return pan.substring(pan.length() - 4);
     }
 }
@@ -14,8 +14,12 @@ public final class CardStatusUtil {
     }
 
     public static BankCardStatus effectiveStatus(BankCard card, LocalDate today) {
-        return isExpired(card.getExpirationDate(), today)
+        return effectiveStatus(card.getStatus(), card.getExpirationDate(), today);
+    }
+
+    public static BankCardStatus effectiveStatus(BankCardStatus status, LocalDate exp, LocalDate today) {
+        return isExpired(exp, today)
                 ? BankCardStatus.EXPIRED
-                : card.getStatus();
+                : status;
     }
 }
@@ -0,0 +1,42 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул непотокобезопасных объектов (Cipher, MessageDigest), которые дорого создавать.
+ * Объект берется на время одного вызова и возвращается. На виртуальных потоках (поток на запрос)
+ * ThreadLocal создавал бы экземпляр на каждый запрос, пул же переиспользует их между потоками.
+ * Пустой пул создает новый объект, лишний при возврате отбрасывается - память ограничена capacity.
+ */
+public final class InstancePool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public InstancePool(int capacity, Supplier<T> factory) {
+        if (capacity <= 0) {
+            throw new IllegalStateException("Размер пула должен быть > 0");
+        }
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    /** Размер по умолчанию - с запасом на одновременные вызовы на всех ядрах. */
+    public static int defaultCapacity() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    public T borrow() {
+        T instance = idle.poll();
+        return (instance != null) ? instance : factory.get();
+    }
+
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+}
@@ -23,6 +23,17 @@ public class PanEncryptor {
     private static final int KEY_LEN_BITS = 256;
     private static final int PBKDF2_ITERS = 120_000;
 
+    private static final Base64.Encoder B64 = Base64.getEncoder();
+
+    // Cipher не потокобезопасен: экземпляр берется из пула на один вызов, перед шифрованием init с новым IV
+    private static final InstancePool<Cipher> AES_GCM = new InstancePool<>(InstancePool.defaultCapacity(), () -> {
+        try {
+            return Cipher.getInstance(CIPHER);
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось зашифровать номер карты (PAN)", e);
+        }
+    });
+
     private final SecretKey key;
     private final SecureRandom random = new SecureRandom();
 
@@ -43,20 +54,20 @@ public class PanEncryptor {
         if (panNormalized == null || panNormalized.isBlank()) {
             throw new IllegalArgumentException("Номер (PAN) карты пустой");
         }
+        Cipher cipher = AES_GCM.borrow();
         try {
             byte[] iv = new byte[IV_LEN_BYTES];
             random.nextBytes(iv);
 
-            Cipher cipher = Cipher.getInstance(CIPHER);
             cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LEN_BITS, iv));
 
             byte[] ciphertext = cipher.doFinal(panNormalized.getBytes(StandardCharsets.UTF_8));
 
-            String ivB64 = Base64.getEncoder().encodeToString(iv);
-            String ctB64 = Base64.getEncoder().encodeToString(ciphertext);
-            return ivB64 + ":" + ctB64;
+            return B64.encodeToString(iv) + ":" + B64.encodeToString(ciphertext);
         } catch (Exception e) {
             throw new IllegalStateException("Не удалось зашифровать номер карты (PAN)", e);
+        } finally {
+            AES_GCM.release(cipher);
         }
     }
 
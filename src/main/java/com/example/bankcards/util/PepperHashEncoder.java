@@ -5,36 +5,54 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 @Component
 public class PepperHashEncoder {
 
-    private final String pepper;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // MessageDigest не потокобезопасен: экземпляр из пула на один вызов вместо getInstance на каждый
+    private static final InstancePool<MessageDigest> SHA256 = new InstancePool<>(InstancePool.defaultCapacity(), () -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash PAN", e);
+        }
+    });
+
+    private final byte[] pepper;
 
     public PepperHashEncoder(@Value("${app.hashEncoder.pepper}") String pepper) {
         if (pepper == null || pepper.isBlank()) {
             throw new IllegalStateException("app.hashEncoder.pepper must be set");
         }
-        this.pepper = pepper;
+        this.pepper = pepper.getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * SHA-256(UTF-8(pan + pepper)) в hex; pepper дописывается в digest без склейки строк.
+     */
     public String sha256Hex(String panNormalized) {
+        MessageDigest md = SHA256.borrow();
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest((panNormalized + pepper).getBytes(StandardCharsets.UTF_8));
-            return toHex(hash);
+            md.reset();
+            md.update(String.valueOf(panNormalized).getBytes(StandardCharsets.UTF_8));
+            md.update(pepper);
+            return toHex(md.digest());
         } catch (Exception e) {
             throw new IllegalStateException("Cannot hash PAN", e);
+        } finally {
+            SHA256.release(md);
         }
     }
 
     private static String toHex(byte[] bytes) {
         char[] hex = new char[bytes.length * 2];
-        char[] digits = "0123456789abcdef".toCharArray();
         for (int i = 0; i < bytes.length; i++) {
             int v = bytes[i] & 0xFF;
-            hex[i * 2] = digits[v >>> 4];
-            hex[i * 2 + 1] = digits[v & 0x0F];
+            hex[i * 2] = HEX[v >>> 4];
+            hex[i * 2 + 1] = HEX[v & 0x0F];
         }
         return new String(hex);
     }
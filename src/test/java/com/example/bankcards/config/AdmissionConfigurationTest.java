@@ -0,0 +1,87 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.common.AdmissionController;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdmissionConfigurationTest {
+
+    // ответ 503, как его собрал бы ApiExceptionHandler
+    private static final HandlerExceptionResolver OVERLOADED = (request, response, handler, ex) -> {
+        response.setStatus(503);
+        return new ModelAndView();
+    };
+
+    @Test
+    void loginsStuckInHashing_doNotStarveCardReads() throws Exception {
+        AdmissionController admission = new AdmissionController(true, true, 1, 10, 0, 0);
+        AdmissionConfiguration.AdmissionFilter filter = new AdmissionConfiguration.AdmissionFilter(admission, OVERLOADED);
+
+        int logins = 10;
+        CountDownLatch hashing = new CountDownLatch(logins);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain stuckInBcrypt = (req, res) -> {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> pending = new ArrayList<>();
+            for (int i = 0; i < logins; i++) {
+                pending.add(pool.submit(() -> {
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"),
+                            new MockHttpServletResponse(), stuckInBcrypt);
+                    return null;
+                }));
+            }
+            assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            AtomicBoolean served = new AtomicBoolean();
+            MockHttpServletResponse cardRead = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/cards"), cardRead, (req, res) -> served.set(true));
+
+            assertThat(served).isTrue();
+            assertThat(cardRead.getStatus()).isEqualTo(200);
+            assertThat(admission.stats().rejected()).isZero();
+
+            release.countDown();
+            for (Future<?> f : pending) f.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void transfersBypassFilter_otherApiStillLimited() throws Exception {
+        AdmissionController admission = new AdmissionController(true, false, 1, 10, 0, 0);
+        AdmissionConfiguration.AdmissionFilter filter = new AdmissionConfiguration.AdmissionFilter(admission, OVERLOADED);
+        admission.acquire();
+
+        AtomicBoolean transferServed = new AtomicBoolean();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transfers"), new MockHttpServletResponse(),
+                (req, res) -> transferServed.set(true));
+        assertThat(transferServed).isTrue();
+
+        MockHttpServletResponse cardRead = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cards"), cardRead,
+                (req, res) -> fail("запрос не должен быть допущен"));
+        assertThat(cardRead.getStatus()).isEqualTo(503);
+    }
+}
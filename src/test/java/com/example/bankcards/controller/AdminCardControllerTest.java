@@ -2,12 +2,22 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.config.JacksonConfiguration;
 import com.example.bankcards.config.SecurityConfiguration;
+import com.example.bankcards.dto.card.CardBulkAction;
+import com.example.bankcards.dto.card.CardBulkImportEvent;
+import com.example.bankcards.dto.card.CardBulkStatusEvent;
 import com.example.bankcards.dto.card.CardResponse;
 import com.example.bankcards.entity.card.BankCardStatus;
 import com.example.bankcards.exception.ApiExceptionHandler;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.security.filter.JwtAuthFilter;
 import com.example.bankcards.service.auth.JwtService;
+import com.example.bankcards.service.card.CardBulkFormat;
+import com.example.bankcards.service.card.CardsBulkImportService;
+import com.example.bankcards.service.card.CardsBulkStatusService;
 import com.example.bankcards.service.card.CardsService;
+import com.example.bankcards.service.card.TransferHistoryService;
+import com.example.bankcards.service.common.CountStrategy;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
@@ -23,6 +33,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -31,14 +42,19 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AdminCardsController.class)
-@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class})
+@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class,
+        PrincipalCache.class})
 class AdminCardControllerTest {
 
     @Autowired MockMvc mockMvc;
 
     @MockitoBean CardsService cardsService;
+    @MockitoBean CardsBulkImportService cardsBulkImportService;
+    @MockitoBean CardsBulkStatusService cardsBulkStatusService;
+    @MockitoBean TransferHistoryService transferHistoryService;
     @MockitoBean JwtService jwtService;
     @MockitoBean UserDetailsService userDetailsService;
+    @MockitoBean TokenRevocationRegistry tokenRevocationRegistry;
 
     @Test
     @WithMockUser(roles = "USER")
@@ -125,7 +141,8 @@ class AdminCardControllerTest {
                 1
         );
 
-        when(cardsService.searchCards(eq(ownerId), eq(BankCardStatus.ACTIVE), eq("1234"), any()))
+        when(cardsService.searchCards(eq(ownerId), eq(BankCardStatus.ACTIVE), eq("1234"), any(),
+                eq(CountStrategy.EXACT)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/api/admin/cards")
@@ -137,6 +154,90 @@ class AdminCardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
                 .andExpect(jsonPath("$.content[0].id").value(cardId.toString()))
-                .andExpect(jsonPath("$.content[0].maskedCardNumber").value("**** **** **** 1234"));
+                .andExpect(jsonPath("$.content[0].maskedCardNumber").value("**** **** **** 1234"))
+                .andExpect(header().string("X-Total-Count-Strategy", "EXACT"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void search_estimatedCount_passesStrategy_andReportsItInHeader() throws Exception {
+        when(cardsService.searchCards(isNull(), isNull(), isNull(), any(), eq(CountStrategy.ESTIMATED)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+
+        mockMvc.perform(get("/api/admin/cards").param("count", "ESTIMATED"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count-Strategy", "ESTIMATED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkCreate_csv_streamsEventsAsNdjson() throws Exception {
+        when(cardsBulkImportService.importCards(any(), eq(CardBulkFormat.CSV), any())).thenAnswer(inv -> {
+            Consumer<CardBulkImportEvent> events = inv.getArgument(2);
+            events.accept(CardBulkImportEvent.error(2, "Некорректная длина номера карты"));
+            CardBulkImportEvent done = CardBulkImportEvent.done(2, 1, 0, 1);
+            events.accept(done);
+            return done;
+        });
+
+        String body = "cardNumber,expirationDate,ownerId\n4111111111111111,2035-08-11," + UUID.randomUUID() + "\n";
+
+        mockMvc.perform(post("/api/admin/cards/bulk")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"type\":\"ERROR\",\"line\":2,\"error\":\"Некорректная длина номера карты\"}\n"
+                                + "{\"type\":\"DONE\",\"processed\":2,\"created\":1,\"duplicates\":0,\"failed\":1}\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkStatus_json_returnsAffectedCount() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        when(cardsBulkStatusService.apply(eq(CardBulkAction.BLOCK), eq(ownerId), isNull(), isNull(), any()))
+                .thenReturn(CardBulkStatusEvent.done(CardBulkAction.BLOCK, 3, 2, 1));
+
+        mockMvc.perform(post("/api/admin/cards/bulk-status")
+                        .param("action", "BLOCK")
+                        .param("ownerId", ownerId.toString())
+                        .accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("DONE"))
+                .andExpect(jsonPath("$.matched").value(3))
+                .andExpect(jsonPath("$.affected").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkStatus_ndjson_streamsProgress() throws Exception {
+        when(cardsBulkStatusService.apply(eq(CardBulkAction.DELETE), isNull(), isNull(), eq("1111"), any()))
+                .thenAnswer(inv -> {
+                    Consumer<CardBulkStatusEvent> events = inv.getArgument(4);
+                    events.accept(CardBulkStatusEvent.progress(CardBulkAction.DELETE, 2, 2, 1));
+                    CardBulkStatusEvent done = CardBulkStatusEvent.done(CardBulkAction.DELETE, 2, 2, 1);
+                    events.accept(done);
+                    return done;
+                });
+
+        mockMvc.perform(post("/api/admin/cards/bulk-status")
+                        .param("action", "DELETE")
+                        .param("last4", "1111")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"type\":\"PROGRESS\",\"action\":\"DELETE\",\"matched\":2,\"affected\":2,\"chunks\":1}\n"
+                                + "{\"type\":\"DONE\",\"action\":\"DELETE\",\"matched\":2,\"affected\":2,\"chunks\":1}\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void bulkCreate_userRole_forbidden403() throws Exception {
+        mockMvc.perform(post("/api/admin/cards/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{}"))
+                .andExpect(status().isForbidden());
     }
 }
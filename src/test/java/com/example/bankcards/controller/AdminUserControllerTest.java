@@ -4,6 +4,8 @@ import com.example.bankcards.config.JacksonConfiguration;
 import com.example.bankcards.config.SecurityConfiguration;
 import com.example.bankcards.dto.user.UserResponse;
 import com.example.bankcards.exception.ApiExceptionHandler;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.security.filter.JwtAuthFilter;
 import com.example.bankcards.service.auth.JwtService;
 import com.example.bankcards.service.user.UsersService;
@@ -28,7 +30,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AdminUsersController.class)
-@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class})
+@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class,
+        PrincipalCache.class})
 class AdminUserControllerTest {
 
     @Autowired MockMvc mockMvc;
@@ -38,6 +41,7 @@ class AdminUserControllerTest {
 
     @MockitoBean JwtService jwtService;
     @MockitoBean UserDetailsService userDetailsService;
+    @MockitoBean TokenRevocationRegistry tokenRevocationRegistry;
 
     @Test
     @WithMockUser(roles = "USER")
@@ -46,6 +50,19 @@ class AdminUserControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void actuatorPrometheus_onMainPort_withoutAuth_returns401() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void actuatorPrometheus_onMainPort_userRole_forbidden403() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void createUser_adminRole_returns201AndBody() throws Exception {
@@ -121,6 +138,17 @@ class AdminUserControllerTest {
                 .andExpect(jsonPath("$.id").value(id.toString()));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void unlock_returns200() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(usersService.unlock(id)).thenReturn(new UserResponse(id, "Andy", "andy@mail.ru"));
+
+        mockMvc.perform(post("/api/admin/users/{id}/unlock", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void resetPassword_returns204() throws Exception {
@@ -4,6 +4,9 @@ import com.example.bankcards.config.JacksonConfiguration;
 import com.example.bankcards.config.SecurityConfiguration;
 import com.example.bankcards.dto.auth.JwtResponse;
 import com.example.bankcards.exception.ApiExceptionHandler;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.security.filter.JwtAuthFilter;
 import com.example.bankcards.service.auth.AuthService;
 import com.example.bankcards.service.auth.JwtService;
@@ -13,6 +16,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -23,7 +27,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AuthenticationController.class)
-@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class})
+@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class,
+        PrincipalCache.class})
 class AuthControllerTest {
 
     @Autowired MockMvc mockMvc;
@@ -32,10 +37,11 @@ class AuthControllerTest {
 
     @MockitoBean JwtService jwtService;
     @MockitoBean UserDetailsService userDetailsService;
+    @MockitoBean TokenRevocationRegistry tokenRevocationRegistry;
 
     @Test
     void login_validCredentials_returns200AndToken() throws Exception {
-        when(authService.login(any())).thenReturn(new JwtResponse("token-123"));
+        when(authService.login(any(), any())).thenReturn(new JwtResponse("token-123"));
 
         String body = """
                 {"email":"user@mail.ru","password":"qwerty_best_password"}
@@ -51,7 +57,7 @@ class AuthControllerTest {
 
     @Test
     void login_badCredentials_returns401() throws Exception {
-        when(authService.login(any()))
+        when(authService.login(any(), any()))
                 .thenThrow(new BadCredentialsException("Неверный логин или пароль"));
 
         String body = """
@@ -69,6 +75,40 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.path").value("/api/auth/login"));
     }
 
+    @Test
+    void login_tooManyAttempts_returns429WithRetryAfter() throws Exception {
+        when(authService.login(any(), any()))
+                .thenThrow(new TooManyRequestsException("Слишком много попыток входа, повторите позже", 42));
+
+        String body = """
+                {"email":"user@mail.ru","password":"wrong_password"}
+                """;
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "42"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.message").value("Слишком много попыток входа, повторите позже"));
+    }
+
+    @Test
+    void login_lockedAccount_returnsSame401AsBadCredentials() throws Exception {
+        when(authService.login(any(), any())).thenThrow(new LockedException("User account is locked"));
+
+        String body = """
+                {"email":"user@mail.ru","password":"qwerty_best_password"}
+                """;
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.status").value(401))
+                .andExpect(jsonPath("$.message").value("Неверный логин или пароль"));
+    }
+
     @Test
     void login_invalidEmail_returns400() throws Exception {
         String body = """
@@ -7,9 +7,13 @@ import com.example.bankcards.entity.card.BankCardStatus;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.entity.user.UserRole;
 import com.example.bankcards.exception.ApiExceptionHandler;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.security.filter.JwtAuthFilter;
 import com.example.bankcards.service.auth.JwtService;
+import com.example.bankcards.service.auth.ParsedToken;
 import com.example.bankcards.service.card.CardsService;
+import com.example.bankcards.service.card.TransferHistoryService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -23,7 +27,9 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -37,16 +43,19 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = CardsController.class)
-@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class})
+@Import({SecurityConfiguration.class, JacksonConfiguration.class, ApiExceptionHandler.class, JwtAuthFilter.class,
+        PrincipalCache.class})
 class UserCardControllerTest {
 
     @Autowired MockMvc mockMvc;
     @Autowired ObjectMapper objectMapper;
 
     @MockitoBean CardsService cardsService;
+    @MockitoBean TransferHistoryService transferHistoryService;
 
     @MockitoBean JwtService jwtService;
     @MockitoBean UserDetailsService userDetailsService;
+    @MockitoBean TokenRevocationRegistry tokenRevocationRegistry;
 
     @Test
     void getMyCards_withoutAuth_returns401() throws Exception {
@@ -57,6 +66,22 @@ class UserCardControllerTest {
                 .andExpect(jsonPath("$.message").value("Unauthorized"));
     }
 
+    @Test
+    void getMyCards_issuedToken_stillAccepted_duringFailedLoginLock() throws Exception {
+        UUID userId = UUID.randomUUID();
+        AppUser lockedByFailedLogins = AppUser.builder()
+                .id(userId).name("U").email("u@mail.ru").passwordHash("x").role(UserRole.ROLE_USER)
+                .lockedUntil(LocalDateTime.now().plusMinutes(15))
+                .build();
+        when(jwtService.parseToken("token"))
+                .thenReturn(new ParsedToken("u@mail.ru", Instant.now().plusSeconds(60), userId, UserRole.ROLE_USER, 0L));
+        when(userDetailsService.loadUserByUsername("u@mail.ru")).thenReturn(lockedByFailedLogins);
+        when(cardsService.getMyCards(eq(userId), any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/cards").header("Authorization", "Bearer token"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void getMyCards_userSeesOnlyOwnCards_filtersAndPageable_ok() throws Exception {
         UUID userId = UUID.randomUUID();
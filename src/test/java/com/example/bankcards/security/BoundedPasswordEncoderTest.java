@@ -0,0 +1,90 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void encodeAndMatches_runOnPool_andUpgradeOnlyWeakerHashes() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 2, 4);
+        try {
+            String hash = encoder.encode("secret");
+
+            assertThat(BoundedPasswordEncoder.costOf(hash)).isEqualTo(5);
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(encoder.matches("wrong", hash)).isFalse();
+
+            assertThat(encoder.upgradeEncoding(hash)).isFalse();
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+            // более сильный хэш (другой инстанс, прежняя настройка) не понижается
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+            assertThat(encoder.upgradeEncoding("plain")).isFalse();
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void fullQueue_rejectsImmediately_with503Exception() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 10, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "a"), callers);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "b"), callers);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (encoder.queuedTasks() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThatThrownBy(() -> encoder.matches("c", "c"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void calibrate_staysWithinBounds() {
+        // стоимость 10 заведомо дольше 1 мс - остается минимум
+        assertThat(BoundedPasswordEncoder.calibrate(1, 10, 12)).isEqualTo(10);
+        assertThat(BoundedPasswordEncoder.calibrate(60_000, 4, 5)).isEqualTo(5);
+    }
+}
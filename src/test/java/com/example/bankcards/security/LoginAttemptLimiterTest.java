@@ -0,0 +1,108 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoginAttemptLimiterTest {
+
+    private static final long WINDOW_MS = 60_000;
+    // начало корзины, чтобы оценка скользящего окна считалась от известной точки
+    private static final long T0 = 100 * WINDOW_MS;
+
+    private final AtomicLong now = new AtomicLong(T0);
+
+    @Test
+    void perIpLimit_rejectsExcess_andSlidesWithWindow() {
+        LoginAttemptLimiter limiter = limiter(3, 100, 100, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0.1", "user" + i + "@mail.ru");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "other@mail.ru"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessage("Слишком много попыток входа, повторите позже")
+                .extracting(e -> ((TooManyRequestsException) e).getRetryAfterSeconds())
+                .isEqualTo(60L);
+        limiter.acquire("10.0.0.2", "other@mail.ru");
+
+        // в следующей корзине прошлые попытки весят оставшейся долей окна: 3 * 2/3 = 2 < 3
+        now.set(T0 + WINDOW_MS + WINDOW_MS / 3);
+        limiter.acquire("10.0.0.1", "late@mail.ru");
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "late@mail.ru"))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        now.set(T0 + 3 * WINDOW_MS);
+        limiter.acquire("10.0.0.1", "late@mail.ru");
+    }
+
+    @Test
+    void perEmailLimit_appliesAcrossIps_andSuccessResetsIt() {
+        LoginAttemptLimiter limiter = limiter(100, 2, 100, 1000);
+
+        limiter.acquire("10.0.0.1", "victim@mail.ru");
+        limiter.acquire("10.0.0.2", "victim@mail.ru");
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.3", "victim@mail.ru"))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        limiter.recordSuccess("victim@mail.ru");
+        limiter.acquire("10.0.0.3", "victim@mail.ru");
+    }
+
+    @Test
+    void recordFailure_reportsLockOnceAtThreshold() {
+        LoginAttemptLimiter limiter = limiter(100, 100, 3, 1000);
+
+        assertThat(limiter.recordFailure("victim@mail.ru")).isFalse();
+        assertThat(limiter.recordFailure("victim@mail.ru")).isFalse();
+        assertThat(limiter.recordFailure("victim@mail.ru")).isTrue();
+        assertThat(limiter.recordFailure("victim@mail.ru")).isFalse();
+        assertThat(limiter.lockDuration()).isEqualTo(Duration.ofMillis(15 * WINDOW_MS));
+
+        limiter.recordFailure("other@mail.ru");
+        limiter.recordSuccess("other@mail.ru");
+        limiter.recordFailure("other@mail.ru");
+        assertThat(limiter.recordFailure("other@mail.ru")).isFalse();
+    }
+
+    @Test
+    void trackedKeys_staysBounded_underKeyChurn() {
+        LoginAttemptLimiter limiter = limiter(100, 100, 100, 64);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.acquire("10.0." + (i / 256) + "." + (i % 256), "user" + i + "@mail.ru");
+        }
+
+        // по 64 ключа на таблицу IP и email, разбитые на 4 полосы по 16
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(2 * 64);
+    }
+
+    @Test
+    void disabled_neverRejects() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(false, WINDOW_MS, 1, 1, 1, WINDOW_MS, 4, 64,
+                new SimpleMeterRegistry(), now::get);
+
+        limiter.acquire("10.0.0.1", "u@mail.ru");
+        limiter.acquire("10.0.0.1", "u@mail.ru");
+        assertThat(limiter.recordFailure("u@mail.ru")).isFalse();
+    }
+
+    @Test
+    void invalidConfig_failsFast() {
+        assertThatThrownBy(() -> new LoginAttemptLimiter(true, 0, 1, 1, 1, WINDOW_MS, 4, 64,
+                new SimpleMeterRegistry(), now::get))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.security.login.window-ms должен быть > 0");
+    }
+
+    private LoginAttemptLimiter limiter(int perIp, int perEmail, int lockThreshold, int maxKeys) {
+        return new LoginAttemptLimiter(true, WINDOW_MS, perIp, perEmail, lockThreshold, 15 * WINDOW_MS, 4, maxKeys,
+                new SimpleMeterRegistry(), now::get);
+    }
+}
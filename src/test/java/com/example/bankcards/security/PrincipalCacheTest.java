@@ -0,0 +1,97 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.user.AppUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    @Test
+    void get_loadsOncePerNormalizedEmail_untilEvicted() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserDetails> loader = email -> {
+            loads.incrementAndGet();
+            return AppUser.builder().id(UUID.randomUUID()).email(email).build();
+        };
+
+        UserDetails first = cache.get("U@mail.ru", loader);
+        UserDetails second = cache.get(" u@mail.ru ", loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        cache.onUserSecurityChanged(new UserSecurityChangedEvent(UUID.randomUUID(), "u@MAIL.ru", 0, false, false));
+        cache.get("u@mail.ru", loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_evictedWhileLoading_doesNotCacheStaleUser() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserDetails> loader = email -> {
+            // изменение пользователя коммитится, пока идет загрузка: прочитана еще старая версия
+            if (loads.incrementAndGet() == 1) {
+                cache.onUserSecurityChanged(new UserSecurityChangedEvent(UUID.randomUUID(), email, 1, true, false));
+            }
+            return AppUser.builder().email(email).tokenVersion(loads.get()).build();
+        };
+
+        UserDetails stale = cache.get("u@mail.ru", loader);
+        UserDetails fresh = cache.get("u@mail.ru", loader);
+
+        assertThat(fresh).isNotSameAs(stale);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get("u@mail.ru", loader)).isSameAs(fresh);
+    }
+
+    @Test
+    void get_zeroTtl_disablesCaching() {
+        PrincipalCache cache = new PrincipalCache(0, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("u@mail.ru", email -> {
+            loads.incrementAndGet();
+            return AppUser.builder().email(email).build();
+        });
+        cache.get("u@mail.ru", email -> {
+            loads.incrementAndGet();
+            return AppUser.builder().email(email).build();
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_fullCache_evictsLeastRecentlyUsed_andKeepsCaching() {
+        PrincipalCache cache = new PrincipalCache(60_000, 2);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, UserDetails> loader = email -> {
+            loads.incrementAndGet();
+            return AppUser.builder().email(email).build();
+        };
+
+        cache.get("a@mail.ru", loader);
+        cache.get("b@mail.ru", loader);
+        cache.get("a@mail.ru", loader);
+        cache.get("c@mail.ru", loader);
+        assertThat(loads).hasValue(3);
+        assertThat(cache.size()).isEqualTo(2);
+
+        // b - давно не использованная, вытеснена; a и c - в кэше
+        cache.get("a@mail.ru", loader);
+        cache.get("c@mail.ru", loader);
+        assertThat(loads).hasValue(3);
+
+        cache.get("b@mail.ru", loader);
+        assertThat(loads).hasValue(4);
+    }
+}
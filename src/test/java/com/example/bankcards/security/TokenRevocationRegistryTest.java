@@ -0,0 +1,97 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.UserTombstonesRepository;
+import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.repository.projection.UserTokenState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    private static final long TOKEN_TTL_MS = 86_400_000L;
+
+    @Mock UsersRepository usersRepository;
+    @Mock UserTombstonesRepository tombstonesRepository;
+
+    TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenRevocationRegistry(usersRepository, tombstonesRepository, true, TOKEN_TTL_MS);
+    }
+
+    @Test
+    void refresh_rejectsOldVersionsAndDisabledUsers_acceptsUnknownUsers() {
+        UUID bumped = UUID.randomUUID();
+        UUID disabled = UUID.randomUUID();
+        when(usersRepository.findTokenRevocationStates()).thenReturn(List.of(
+                new UserTokenState(bumped, 2, true, true),
+                new UserTokenState(disabled, 0, false, true)
+        ));
+
+        assertThat(registry.isReady()).isFalse();
+        registry.refresh();
+
+        assertThat(registry.isReady()).isTrue();
+        assertThat(registry.isAccepted(bumped, 1)).isFalse();
+        assertThat(registry.isAccepted(bumped, 2)).isTrue();
+        assertThat(registry.isAccepted(disabled, 0)).isFalse();
+        assertThat(registry.isAccepted(UUID.randomUUID(), 0)).isTrue();
+    }
+
+    @Test
+    void onUserSecurityChanged_appliesImmediately_andDeletedStaysRevokedAfterRefresh() {
+        UUID userId = UUID.randomUUID();
+        UUID deletedId = UUID.randomUUID();
+        when(usersRepository.findTokenRevocationStates()).thenReturn(List.of());
+        // удаление фиксирует отметку в user_tombstones - следующий снимок ее видит
+        when(tombstonesRepository.findUserIdsDeletedSince(any())).thenReturn(List.of(), List.of(deletedId));
+        registry.refresh();
+
+        registry.onUserSecurityChanged(new UserSecurityChangedEvent(userId, "u@mail.ru", 1, false, false));
+        registry.onUserSecurityChanged(new UserSecurityChangedEvent(deletedId, "d@mail.ru", 0, false, true));
+
+        assertThat(registry.isAccepted(userId, 0)).isFalse();
+        assertThat(registry.isAccepted(userId, 1)).isTrue();
+        assertThat(registry.isAccepted(deletedId, 0)).isFalse();
+
+        registry.refresh();
+
+        assertThat(registry.isAccepted(deletedId, 0)).isFalse();
+    }
+
+    @Test
+    void refresh_rejectsUserDeletedOnAnotherInstance_fromTombstones() {
+        UUID deletedAdmin = UUID.randomUUID();
+        when(usersRepository.findTokenRevocationStates()).thenReturn(List.of());
+        when(tombstonesRepository.findUserIdsDeletedSince(any())).thenReturn(List.of(deletedAdmin));
+
+        registry.refresh();
+
+        assertThat(registry.isAccepted(deletedAdmin, 0)).isFalse();
+        assertThat(registry.isAccepted(deletedAdmin, Long.MAX_VALUE - 1)).isFalse();
+    }
+
+    @Test
+    void refresh_notStateless_doesNotQueryDatabase() {
+        TokenRevocationRegistry stateful =
+                new TokenRevocationRegistry(usersRepository, tombstonesRepository, false, TOKEN_TTL_MS);
+
+        stateful.refresh();
+
+        assertThat(stateful.isReady()).isFalse();
+        verifyNoInteractions(usersRepository, tombstonesRepository);
+    }
+}
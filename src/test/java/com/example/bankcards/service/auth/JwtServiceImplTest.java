@@ -1,7 +1,13 @@
 package com.example.bankcards.service.auth;
 
+import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.entity.user.UserRole;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.*;
 
 class JwtServiceImplTest {
@@ -63,4 +69,67 @@ class JwtServiceImplTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Секрет JWT слишком короткий: для HS256 нужно минимум 32 байт, получено 5 байт");
     }
+
+    @Test
+    void issueToken_forAppUser_embedsIdRoleAndVersion_parsedOnce() {
+        JwtServiceImpl jwt = new JwtServiceImpl("raw:12345678901234567890123456789012", 60_000);
+        UUID id = UUID.randomUUID();
+        AppUser user = AppUser.builder()
+                .id(id).email("u@mail.ru").role(UserRole.ROLE_USER).tokenVersion(3)
+                .build();
+
+        ParsedToken parsed = jwt.parseToken(jwt.issueToken(user));
+
+        assertThat(parsed.username()).isEqualTo("u@mail.ru");
+        assertThat(parsed.userId()).isEqualTo(id);
+        assertThat(parsed.role()).isEqualTo(UserRole.ROLE_USER);
+        assertThat(parsed.tokenVersion()).isEqualTo(3L);
+        assertThat(parsed.hasStatelessClaims()).isTrue();
+    }
+
+    @Test
+    void parseToken_sameToken_servedFromVerifiedCache_invalidTokenNotCached() {
+        JwtServiceImpl jwt = new JwtServiceImpl("raw:12345678901234567890123456789012", 60_000, 100);
+        AppUser user = AppUser.builder()
+                .id(UUID.randomUUID()).email("u@mail.ru").role(UserRole.ROLE_USER)
+                .build();
+        String token = jwt.issueToken(user);
+
+        assertThat(jwt.parseToken(token)).isSameAs(jwt.parseToken(token));
+
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+        assertThatThrownBy(() -> jwt.parseToken(tampered)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> jwt.parseToken(tampered)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void parseToken_cacheDisabled_parsesEveryTime() {
+        JwtServiceImpl jwt = new JwtServiceImpl("raw:12345678901234567890123456789012", 60_000, 0);
+        AppUser user = AppUser.builder()
+                .id(UUID.randomUUID()).email("u@mail.ru").role(UserRole.ROLE_USER)
+                .build();
+        String token = jwt.issueToken(user);
+
+        assertThat(jwt.parseToken(token)).isNotSameAs(jwt.parseToken(token)).isEqualTo(jwt.parseToken(token));
+    }
+
+    @Test
+    void verifiedTokenCache_full_evictsLeastRecentlyUsed_andKeepsCaching() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        Instant now = Instant.now();
+        ParsedToken parsed = new ParsedToken("u@mail.ru", now.plusSeconds(60), null, null, null);
+        ByteBuffer a = VerifiedTokenCache.digest("a");
+        ByteBuffer b = VerifiedTokenCache.digest("b");
+        ByteBuffer c = VerifiedTokenCache.digest("c");
+
+        cache.put(a, parsed);
+        cache.put(b, parsed);
+        cache.get(a, now);
+        cache.put(c, parsed);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(a, now)).isSameAs(parsed);
+        assertThat(cache.get(c, now)).isSameAs(parsed);
+        assertThat(cache.get(b, now)).isNull();
+    }
 }
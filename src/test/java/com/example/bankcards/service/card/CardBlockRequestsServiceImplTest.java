@@ -170,11 +170,12 @@ class CardBlockRequestsServiceImplTest {
                 .build();
 
         when(blockRequestsRepository.findById(reqId)).thenReturn(Optional.of(req));
-        when(cardsRepository.findByIdAndDeletedFalse(cardId)).thenReturn(Optional.of(card));
+        when(cardsRepository.updateStatus(cardId, BankCardStatus.BLOCKED)).thenReturn(1);
 
         service.approve(reqId);
 
-        assertThat(card.getStatus()).isEqualTo(BankCardStatus.BLOCKED);
+        verify(cardsRepository).updateStatus(cardId, BankCardStatus.BLOCKED);
+        verify(cardsRepository, never()).findByIdAndDeletedFalse(any());
         assertThat(req.getStatus()).isEqualTo(CardBlockStatus.APPROVED);
     }
 
@@ -201,7 +202,7 @@ class CardBlockRequestsServiceImplTest {
                 .build();
 
         when(blockRequestsRepository.findById(reqId)).thenReturn(Optional.of(req));
-        when(cardsRepository.findByIdAndDeletedFalse(cardId)).thenReturn(Optional.empty());
+        when(cardsRepository.updateStatus(cardId, BankCardStatus.BLOCKED)).thenReturn(0);
 
         assertThatThrownBy(() -> service.approve(reqId))
                 .isInstanceOf(EntityNotFoundException.class)
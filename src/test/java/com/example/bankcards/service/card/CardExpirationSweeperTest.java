@@ -0,0 +1,58 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.repository.CardsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpirationSweeperTest {
+
+    @Mock CardsRepository cardsRepository;
+    @Mock PlatformTransactionManager transactionManager;
+
+    @Test
+    void sweep_expiresInChunks_untilPartialChunk_oneTransactionPerChunk() {
+        LocalDate today = LocalDate.of(2026, 3, 1);
+        when(cardsRepository.expireBatch(today, 2)).thenReturn(2, 2, 1);
+
+        long expired = new CardExpirationSweeper(cardsRepository, transactionManager, true, 2, 10).sweep(today);
+
+        assertThat(expired).isEqualTo(5);
+        verify(cardsRepository, times(3)).expireBatch(today, 2);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void sweep_stopsAtMaxChunks() {
+        LocalDate today = LocalDate.of(2026, 3, 1);
+        when(cardsRepository.expireBatch(today, 2)).thenReturn(2);
+
+        long expired = new CardExpirationSweeper(cardsRepository, transactionManager, true, 2, 3).sweep(today);
+
+        assertThat(expired).isEqualTo(6);
+        verify(cardsRepository, times(3)).expireBatch(today, 2);
+    }
+
+    @Test
+    void sweep_disabled_doesNothing() {
+        new CardExpirationSweeper(cardsRepository, transactionManager, false, 2, 3).sweep();
+
+        verifyNoInteractions(cardsRepository, transactionManager);
+    }
+
+    @Test
+    void constructor_invalidChunkSize_throwsIllegalState() {
+        assertThatThrownBy(() -> new CardExpirationSweeper(cardsRepository, transactionManager, true, 0, 3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.cards.expiration.chunk-size должен быть > 0");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.monitoring.CardLockStatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CardLockManagerTest {
+
+    @Test
+    void withLocks_disabled_runsActionDirectly() {
+        CardLockManager locks = new CardLockManager(false, 16, 0);
+
+        assertThat(locks.withLocks(List.of(UUID.randomUUID()), () -> "ok")).isEqualTo("ok");
+        assertThat(locks.stats().enabled()).isFalse();
+        assertThat(locks.stats().acquired()).isZero();
+    }
+
+    @Test
+    void withLocks_sameCard_busy_failsFastAfterWait_andReportsHotCard() throws Exception {
+        CardLockManager locks = new CardLockManager(true, 16, 50);
+        UUID hub = UUID.randomUUID();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> locks.withLocks(List.of(hub), () -> {
+                holding.countDown();
+                await(release);
+                return null;
+            }));
+            assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> locks.withLocks(List.of(UUID.randomUUID(), hub), () -> "never"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Карта занята другим переводом, повторите позже");
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CardLockStatsResponse stats = locks.stats();
+        assertThat(stats.acquired()).isEqualTo(1);
+        assertThat(stats.timeouts()).isEqualTo(1);
+        assertThat(stats.hotCards()).isEmpty();
+
+        assertThat(locks.withLocks(List.of(hub), () -> "free again")).isEqualTo("free again");
+    }
+
+    @Test
+    void withLocks_manyCardsSharingStripes_doesNotDeadlock() throws Exception {
+        CardLockManager locks = new CardLockManager(true, 2, 5_000);
+        List<UUID> cards = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int shift = t;
+                results.add(executor.submit(() -> {
+                    int done = 0;
+                    for (int i = 0; i < 500; i++) {
+                        UUID x = cards.get((i + shift) % cards.size());
+                        UUID y = cards.get((i + shift + 1) % cards.size());
+                        done += locks.withLocks(List.of(x, y), () -> 1);
+                    }
+                    return done;
+                }));
+            }
+            for (Future<Integer> f : results) {
+                assertThat(f.get(30, TimeUnit.SECONDS)).isEqualTo(500);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(locks.stats().acquired()).isEqualTo(2000);
+        assertThat(locks.stats().timeouts()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
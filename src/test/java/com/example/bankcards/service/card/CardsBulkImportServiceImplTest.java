@@ -0,0 +1,172 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkImportEvent;
+import com.example.bankcards.dto.card.CardBulkImportEventType;
+import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.util.PanEncryptor;
+import com.example.bankcards.util.PepperHashEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardsBulkImportServiceImplTest {
+
+    @Mock CardsRepository cardsRepository;
+    @Mock UsersRepository usersRepository;
+    @Mock PanEncryptor panEncryptor;
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+
+    CardsBulkImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CardsBulkImportServiceImpl(
+                cardsRepository,
+                usersRepository,
+                new PepperHashEncoder("test-pepper"),
+                panEncryptor,
+                jdbcTemplate,
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager,
+                2
+        );
+    }
+
+    @Test
+    void importCards_ndjson_reportsLineErrors_skipsDuplicates_andBatchInsertsRest() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        UUID unknownOwner = UUID.randomUUID();
+        String exp = LocalDate.now().plusYears(3).toString();
+        String existingHash = new PepperHashEncoder("test-pepper").sha256Hex("5500000000000004");
+
+        String body = String.join("\n",
+                line("4111 1111 1111 1111", exp, ownerId),
+                line("4111-1111-1111-1111", exp, ownerId),
+                "not a json",
+                line("5500000000000004", exp, ownerId),
+                line("4000000000000002", exp, unknownOwner)
+        );
+
+        when(cardsRepository.findExistingPanHashes(anyCollection()))
+                .thenReturn(List.of(existingHash));
+        when(usersRepository.findExistingIds(anyCollection())).thenReturn(List.of(ownerId));
+        when(panEncryptor.encrypt(any())).thenReturn("enc");
+        String insertedHash = new PepperHashEncoder("test-pepper").sha256Hex("4111111111111111");
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), ArgumentMatchers.<RowMapper<String>>any()))
+                .thenReturn(List.of(insertedHash));
+
+        List<CardBulkImportEvent> events = new ArrayList<>();
+        CardBulkImportEvent done = service.importCards(new StringReader(body), CardBulkFormat.NDJSON, events::add);
+
+        assertThat(done.processed()).isEqualTo(5);
+        assertThat(done.created()).isEqualTo(1);
+        assertThat(done.duplicates()).isEqualTo(2);
+        assertThat(done.failed()).isEqualTo(2);
+
+        assertThat(events).filteredOn(e -> e.type() == CardBulkImportEventType.ERROR)
+                .extracting(CardBulkImportEvent::line, CardBulkImportEvent::error)
+                .containsExactlyInAnyOrder(
+                        tuple(2L, "Карта с таким номером уже существует"),
+                        tuple(3L, "Некорректная строка: ожидается NDJSON"),
+                        tuple(4L, "Карта с таким номером уже существует"),
+                        tuple(5L, "Пользователь не найден: " + unknownOwner)
+                );
+        assertThat(events).filteredOn(e -> e.type() == CardBulkImportEventType.PROGRESS).hasSize(3);
+        assertThat(events.getLast()).isEqualTo(done);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).query(sql.capture(), setter.capture(), ArgumentMatchers.<RowMapper<String>>any());
+        assertThat(sql.getValue())
+                .contains("on conflict (pan_hash) do nothing")
+                .contains("returning pan_hash")
+                .containsOnlyOnce("(?, ?, ?, ?, 0, ?, ?, ?, false, 0, ?)");
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        verify(ps).setString(3, "**** **** **** 1111");
+        verify(ps).setString(8, "1111");
+        verify(panEncryptor, times(1)).encrypt("4111111111111111");
+    }
+
+    @Test
+    void importCards_rowTakenByConcurrentImport_countedAsDuplicate_notCreated() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        String exp = LocalDate.now().plusYears(3).toString();
+        String insertedHash = new PepperHashEncoder("test-pepper").sha256Hex("4111111111111111");
+
+        String body = String.join("\n",
+                line("4111111111111111", exp, ownerId),
+                line("5500000000000004", exp, ownerId)
+        );
+
+        when(cardsRepository.findExistingPanHashes(anyCollection())).thenReturn(List.of());
+        when(usersRepository.findExistingIds(anyCollection())).thenReturn(List.of(ownerId));
+        when(panEncryptor.encrypt(any())).thenReturn("enc");
+        // вторую карту между проверкой и вставкой записал параллельный импорт: on conflict do nothing,
+        // в returning ее нет (JDBC-батч с reWriteBatchedInserts вернул бы -2 для обеих строк)
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), ArgumentMatchers.<RowMapper<String>>any()))
+                .thenReturn(List.of(insertedHash));
+
+        List<CardBulkImportEvent> events = new ArrayList<>();
+        CardBulkImportEvent done = service.importCards(new StringReader(body), CardBulkFormat.NDJSON, events::add);
+
+        assertThat(done.created()).isEqualTo(1);
+        assertThat(done.duplicates()).isEqualTo(1);
+        assertThat(events).filteredOn(e -> e.type() == CardBulkImportEventType.ERROR)
+                .extracting(CardBulkImportEvent::line, CardBulkImportEvent::error)
+                .containsExactly(tuple(2L, "Карта с таким номером уже существует"));
+    }
+
+    @Test
+    void importCards_csv_skipsHeader_andValidatesColumns() throws Exception {
+        String body = """
+                cardNumber,expirationDate,ownerId
+                4111111111111111,2000-01-01,%s
+                4111111111111111,2035-01-01
+                """.formatted(UUID.randomUUID());
+
+        List<CardBulkImportEvent> events = new ArrayList<>();
+        CardBulkImportEvent done = service.importCards(new StringReader(body), CardBulkFormat.CSV, events::add);
+
+        assertThat(done.processed()).isEqualTo(2);
+        assertThat(done.failed()).isEqualTo(2);
+        assertThat(events).filteredOn(e -> e.type() == CardBulkImportEventType.ERROR)
+                .extracting(CardBulkImportEvent::line, CardBulkImportEvent::error)
+                .containsExactly(
+                        tuple(2L, "expirationDate должна быть в будущем или сегодня"),
+                        tuple(3L, "Некорректная строка: ожидается CSV")
+                );
+        verifyNoInteractions(jdbcTemplate, cardsRepository, usersRepository, transactionManager);
+    }
+
+    private static String line(String pan, String exp, UUID ownerId) {
+        return """
+                {"cardNumber":"%s","expirationDate":"%s","ownerId":"%s"}""".formatted(pan, exp, ownerId);
+    }
+}
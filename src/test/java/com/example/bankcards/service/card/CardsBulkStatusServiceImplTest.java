@@ -0,0 +1,81 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.CardBulkAction;
+import com.example.bankcards.dto.card.CardBulkImportEventType;
+import com.example.bankcards.dto.card.CardBulkStatusEvent;
+import com.example.bankcards.repository.CardsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardsBulkStatusServiceImplTest {
+
+    @Mock CardsRepository cardsRepository;
+    @Mock PlatformTransactionManager transactionManager;
+
+    CardsBulkStatusServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CardsBulkStatusServiceImpl(cardsRepository, transactionManager, 2);
+    }
+
+    @Test
+    void apply_block_walksChunksByIdInSeparateTransactions_andReportsAffected() {
+        UUID ownerId = UUID.randomUUID();
+        List<UUID> first = List.of(new UUID(0, 1), new UUID(0, 2));
+        List<UUID> second = List.of(new UUID(0, 3));
+
+        when(cardsRepository.findIds(any(), eq(2))).thenReturn(first, second);
+        when(cardsRepository.blockAllByIds(first)).thenReturn(2);
+        when(cardsRepository.blockAllByIds(second)).thenReturn(0);
+
+        List<CardBulkStatusEvent> events = new ArrayList<>();
+        CardBulkStatusEvent done = service.apply(CardBulkAction.BLOCK, ownerId, null, null, events::add);
+
+        assertThat(done).isEqualTo(CardBulkStatusEvent.done(CardBulkAction.BLOCK, 3, 2, 2));
+        assertThat(events).extracting(CardBulkStatusEvent::type).containsExactly(
+                CardBulkImportEventType.PROGRESS, CardBulkImportEventType.PROGRESS, CardBulkImportEventType.DONE);
+        assertThat(events.getFirst().affected()).isEqualTo(2);
+
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(cardsRepository, never()).findByIdAndDeletedFalse(any());
+    }
+
+    @Test
+    void apply_activate_passesToday_andStopsOnEmptyChunk() {
+        List<UUID> ids = List.of(new UUID(0, 1), new UUID(0, 2));
+        when(cardsRepository.findIds(any(), eq(2))).thenReturn(ids, List.of());
+        when(cardsRepository.activateAllByIds(ids, LocalDate.now())).thenReturn(1);
+
+        CardBulkStatusEvent done = service.apply(CardBulkAction.ACTIVATE, null, null, "1111", e -> {});
+
+        assertThat(done.matched()).isEqualTo(2);
+        assertThat(done.affected()).isEqualTo(1);
+        assertThat(done.chunks()).isEqualTo(1);
+        verify(cardsRepository, times(2)).findIds(any(), eq(2));
+    }
+
+    @Test
+    void apply_withoutOwnerOrLast4_throwsIllegalArgument_andDoesNotTouchDb() {
+        assertThatThrownBy(() -> service.apply(CardBulkAction.DELETE, null, null, " ", e -> {}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Для массовой операции нужен фильтр ownerId или last4");
+
+        verifyNoInteractions(cardsRepository, transactionManager);
+    }
+}
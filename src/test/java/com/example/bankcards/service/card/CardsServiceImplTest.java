@@ -1,11 +1,14 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.card.CardAdminUpdateRequest;
 import com.example.bankcards.dto.card.CardCreateRequest;
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.repository.CardsRepository;
 import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.repository.projection.CardView;
+import com.example.bankcards.service.card.spec.CardCursor;
 import com.example.bankcards.util.PanEncryptor;
 import com.example.bankcards.util.PepperHashEncoder;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,14 +18,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -72,6 +82,7 @@ class CardsServiceImplTest {
         assertThat(saved.getPanHash()).isEqualTo("hash-hex");
         assertThat(saved.getEncryptedCardNumber()).isEqualTo("enc-pan");
         assertThat(saved.getMaskedCardNumber()).isEqualTo("**** **** **** 1111");
+        assertThat(saved.getPanLast4()).isEqualTo("1111");
 
         ArgumentCaptor<String> panCaptor = ArgumentCaptor.forClass(String.class);
         verify(hashEncoder).sha256Hex(panCaptor.capture());
@@ -155,6 +166,49 @@ class CardsServiceImplTest {
         verify(cardsRepository, never()).save(any());
     }
 
+    @Test
+    void updateAdminCard_extendsExpiredCard_toBlocked() {
+        UUID cardId = UUID.randomUUID();
+        BankCard card = BankCard.builder()
+                .id(cardId)
+                .maskedCardNumber("**** **** **** 1111")
+                .expirationDate(LocalDate.now().minusDays(1))
+                .status(BankCardStatus.EXPIRED)
+                .balance(BigDecimal.ZERO)
+                .owner(AppUser.builder().id(UUID.randomUUID()).build())
+                .deleted(false)
+                .build();
+
+        when(cardsRepository.findByIdAndDeletedFalse(cardId)).thenReturn(Optional.of(card));
+        when(cardsRepository.save(card)).thenReturn(card);
+
+        var resp = service.updateAdminCard(cardId, new CardAdminUpdateRequest(LocalDate.now().plusYears(2)));
+
+        assertThat(card.getStatus()).isEqualTo(BankCardStatus.BLOCKED);
+        assertThat(resp.status()).isEqualTo(BankCardStatus.BLOCKED);
+    }
+
+    @Test
+    void deleteCard_softDeletesWithoutLoadingCard() {
+        UUID cardId = UUID.randomUUID();
+        when(cardsRepository.softDelete(cardId)).thenReturn(1);
+
+        service.deleteCard(cardId);
+
+        verify(cardsRepository, never()).findByIdAndDeletedFalse(any());
+        verify(cardsRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteCard_notFoundOrDeleted_throwsEntityNotFound() {
+        UUID cardId = UUID.randomUUID();
+        when(cardsRepository.softDelete(cardId)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.deleteCard(cardId))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Карта не найдена: " + cardId);
+    }
+
     @Test
     void getMyCards_invalidLast4_throwsIllegalArgument_withExactMessage() {
         assertThatThrownBy(() ->
@@ -163,4 +217,90 @@ class CardsServiceImplTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("last4 должен состоять ровно из 4 цифр");
     }
+
+    @Test
+    void scrollCards_readsSizePlusOne_returnsHasNext_andCursorOfLastReturnedCard() {
+        UUID ownerId = UUID.randomUUID();
+        CardView c1 = view(ownerId, LocalDate.now().plusYears(1));
+        CardView c2 = view(ownerId, LocalDate.now().plusYears(2));
+        CardView c3 = view(ownerId, LocalDate.now().plusYears(3));
+
+        when(cardsRepository.findViews(any(Specification.class), any(Sort.class), eq(3)))
+                .thenReturn(List.of(c1, c2, c3));
+
+        var resp = service.scrollCards(ownerId, null, null, Sort.by("expirationDate"), null, 2);
+
+        assertThat(resp.content()).extracting("id").containsExactly(c1.id(), c2.id());
+        assertThat(resp.hasNext()).isTrue();
+
+        CardCursor next = CardCursor.decode(resp.nextCursor());
+        assertThat(next.property()).isEqualTo("expirationDate");
+        assertThat(next.direction()).isEqualTo(Sort.Direction.ASC);
+        assertThat(next.value()).isEqualTo(c2.expirationDate().toString());
+        assertThat(next.id()).isEqualTo(c2.id());
+    }
+
+    @Test
+    void scrollCards_lastSlice_hasNoNextCursor() {
+        UUID ownerId = UUID.randomUUID();
+        when(cardsRepository.findViews(any(Specification.class), any(Sort.class), eq(3)))
+                .thenReturn(List.of(view(ownerId, LocalDate.now().plusYears(1))));
+
+        var resp = service.scrollCards(ownerId, null, null, Sort.unsorted(), null, 2);
+
+        assertThat(resp.content()).hasSize(1);
+        assertThat(resp.hasNext()).isFalse();
+        assertThat(resp.nextCursor()).isNull();
+    }
+
+    @Test
+    void scrollCards_cursorFromOtherSort_throwsIllegalArgument_andDoesNotQuery() {
+        String cursor = new CardCursor("balance", Sort.Direction.DESC, "10.00", UUID.randomUUID()).encode();
+
+        assertThatThrownBy(() ->
+                service.scrollCards(null, null, null, Sort.by("expirationDate"), cursor, 20)
+        )
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("cursor не соответствует сортировке");
+
+        verifyNoInteractions(cardsRepository);
+    }
+
+    @Test
+    void scrollCards_unsupportedSortProperty_throwsIllegalArgument() {
+        assertThatThrownBy(() ->
+                service.scrollCards(null, null, null, Sort.by("maskedCardNumber"), null, 20)
+        )
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Недопустимое поле сортировки: maskedCardNumber");
+    }
+
+    @Test
+    void getMyCards_mapsProjection_withEffectiveExpiredStatus() {
+        UUID userId = UUID.randomUUID();
+        CardView expired = view(userId, LocalDate.now().minusDays(1));
+
+        when(cardsRepository.findViews(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(expired)));
+
+        var page = service.getMyCards(userId, null, null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).singleElement().satisfies(r -> {
+            assertThat(r.id()).isEqualTo(expired.id());
+            assertThat(r.ownerId()).isEqualTo(userId);
+            assertThat(r.status()).isEqualTo(BankCardStatus.EXPIRED);
+        });
+        verify(cardsRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    private static CardView view(UUID ownerId, LocalDate expirationDate) {
+        return new CardView(
+                UUID.randomUUID(),
+                "**** **** **** 1111",
+                expirationDate,
+                new BigDecimal("10.00"),
+                BankCardStatus.ACTIVE,
+                ownerId
+        );
+    }
 }
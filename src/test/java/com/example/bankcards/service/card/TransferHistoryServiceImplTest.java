@@ -0,0 +1,125 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.TransferDirection;
+import com.example.bankcards.dto.card.TransferHistoryItem;
+import com.example.bankcards.dto.common.CursorSliceResponse;
+import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.TransferRecordsRepository;
+import com.example.bankcards.repository.projection.TransferView;
+import com.example.bankcards.service.card.spec.TransferCursor;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferHistoryServiceImplTest {
+
+    @Mock CardsRepository cardsRepository;
+    @Mock TransferRecordsRepository transferRecordsRepository;
+
+    @InjectMocks TransferHistoryServiceImpl service;
+
+    @Test
+    void getMyCardTransfers_mergesDirections_newestFirst_andReturnsCursor() {
+        UUID userId = UUID.randomUUID();
+        UUID cardId = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        LocalDateTime t0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        TransferView out1 = view(cardId, other, t0.plusMinutes(3));
+        TransferView out2 = view(cardId, other, t0.plusMinutes(1));
+        TransferView in1 = view(other, cardId, t0.plusMinutes(2));
+        TransferView in2 = view(other, cardId, t0);
+
+        when(cardsRepository.existsByIdAndOwnerIdAndDeletedFalse(cardId, userId)).thenReturn(true);
+        when(transferRecordsRepository.findOutgoingBefore(eq(cardId), any(), any(), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(out1, out2));
+        when(transferRecordsRepository.findIncomingBefore(eq(cardId), any(), any(), any(), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(in1, in2));
+
+        CursorSliceResponse<TransferHistoryItem> res = service.getMyCardTransfers(userId, cardId, null, null, null, 2);
+
+        assertThat(res.content())
+                .extracting(TransferHistoryItem::id, TransferHistoryItem::direction)
+                .containsExactly(
+                        tuple(out1.id(), TransferDirection.OUT),
+                        tuple(in1.id(), TransferDirection.IN)
+                );
+        assertThat(res.hasNext()).isTrue();
+        assertThat(TransferCursor.decode(res.nextCursor())).isEqualTo(TransferCursor.of(in1));
+    }
+
+    @Test
+    void getCardTransfers_passesWindowAndCursorBounds_andLastSliceHasNoCursor() {
+        UUID cardId = UUID.randomUUID();
+        LocalDateTime from = LocalDateTime.of(2025, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+        TransferCursor cursor = new TransferCursor(LocalDateTime.of(2026, 1, 1, 0, 0), UUID.randomUUID());
+        TransferView out = view(cardId, UUID.randomUUID(), cursor.createdAt().minusDays(1));
+
+        when(cardsRepository.existsById(cardId)).thenReturn(true);
+        when(transferRecordsRepository.findOutgoingBefore(
+                cardId, from, to, cursor.createdAt(), cursor.id(), Limit.of(21)))
+                .thenReturn(List.of(out));
+        when(transferRecordsRepository.findIncomingBefore(
+                cardId, from, to, cursor.createdAt(), cursor.id(), Limit.of(21)))
+                .thenReturn(List.of());
+
+        CursorSliceResponse<TransferHistoryItem> res = service.getCardTransfers(cardId, from, to, cursor.encode(), 20);
+
+        assertThat(res.content()).singleElement().extracting(TransferHistoryItem::id).isEqualTo(out.id());
+        assertThat(res.hasNext()).isFalse();
+        assertThat(res.nextCursor()).isNull();
+    }
+
+    @Test
+    void getMyCardTransfers_foreignCard_throwsNotFound() {
+        UUID userId = UUID.randomUUID();
+        UUID cardId = UUID.randomUUID();
+        when(cardsRepository.existsByIdAndOwnerIdAndDeletedFalse(cardId, userId)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getMyCardTransfers(userId, cardId, null, null, null, 20))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Карта не найдена");
+        verifyNoInteractions(transferRecordsRepository);
+    }
+
+    @Test
+    void getCardTransfers_badCursor_throwsIllegalArgument() {
+        UUID cardId = UUID.randomUUID();
+        when(cardsRepository.existsById(cardId)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.getCardTransfers(cardId, null, null, "!!!", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Некорректный cursor");
+    }
+
+    @Test
+    void getCardTransfers_emptyWindow_throwsIllegalArgument() {
+        UUID cardId = UUID.randomUUID();
+        LocalDateTime t = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> service.getCardTransfers(cardId, t, t, null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("from должен быть раньше to");
+        verifyNoInteractions(cardsRepository, transferRecordsRepository);
+    }
+
+    private static TransferView view(UUID from, UUID to, LocalDateTime createdAt) {
+        return new TransferView(UUID.randomUUID(), from, to, new BigDecimal("10.00"), createdAt);
+    }
+}
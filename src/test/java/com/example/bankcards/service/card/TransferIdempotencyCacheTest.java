@@ -0,0 +1,41 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.dto.card.TransferResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TransferIdempotencyCacheTest {
+
+    @Test
+    void get_entryOlderThanRetention_isMiss() {
+        AtomicLong now = new AtomicLong();
+        TransferIdempotencyCache cache = new TransferIdempotencyCache(100, 24, now::get);
+        UUID userId = UUID.randomUUID();
+        TransferResponse response = new TransferResponse(
+                UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("1.00"),
+                LocalDateTime.now(), BigDecimal.ZERO, BigDecimal.ONE
+        );
+        cache.put(userId, "key-1", response);
+
+        now.set(TimeUnit.HOURS.toNanos(24) - 1);
+        assertThat(cache.get(userId, "key-1")).isSameAs(response);
+
+        // строка transfer_idempotency к этому времени может быть удалена - повтор идет в БД, как на других инстансах
+        now.set(TimeUnit.HOURS.toNanos(24));
+        assertThat(cache.get(userId, "key-1")).isNull();
+    }
+
+    @Test
+    void constructor_invalidRetention_throwsIllegalState() {
+        assertThatThrownBy(() -> new TransferIdempotencyCache(100, 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.transfers.idempotency.retention-hours должен быть > 0");
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bankcards.service.card;
+
+import com.example.bankcards.repository.TransferIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIdempotencyPurgerTest {
+
+    @Mock TransferIdempotencyRepository idempotencyRepository;
+    @Mock PlatformTransactionManager transactionManager;
+
+    @Test
+    void purge_deletesOlderThanRetention_inChunks() {
+        when(idempotencyRepository.purgeBatch(24, 2)).thenReturn(2, 1);
+
+        long purged = new TransferIdempotencyPurger(idempotencyRepository, transactionManager, true, 24, 2, 10)
+                .purgeExpired();
+
+        assertThat(purged).isEqualTo(3);
+        verify(idempotencyRepository, times(2)).purgeBatch(24, 2);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void purge_disabled_doesNothing() {
+        new TransferIdempotencyPurger(idempotencyRepository, transactionManager, false, 24, 2, 10).purge();
+
+        verifyNoInteractions(idempotencyRepository, transactionManager);
+    }
+
+    @Test
+    void constructor_invalidRetention_throwsIllegalState() {
+        assertThatThrownBy(() -> new TransferIdempotencyPurger(idempotencyRepository, transactionManager, true, 0, 2, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.transfers.idempotency.retention-hours должен быть > 0");
+    }
+}
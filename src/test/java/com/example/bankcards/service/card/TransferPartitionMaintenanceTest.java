@@ -0,0 +1,103 @@
+package com.example.bankcards.service.card;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferPartitionMaintenanceTest {
+
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+
+    @Test
+    void maintain_createsMissingFutureMonths_andArchivesExpired() {
+        TransferPartitionMaintenance maintenance =
+                new TransferPartitionMaintenance(jdbcTemplate, transactionManager, true, 2, 3, false);
+
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Integer.class), any()))
+                .thenReturn(1);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), any()))
+                .thenReturn(List.of(
+                        "transfers_record_default",
+                        "transfers_record_p2025_12",
+                        "transfers_record_p2026_02",
+                        "transfers_record_p2026_03"
+                ));
+        when(jdbcTemplate.queryForObject(contains("transfers_record_default"), eq(Boolean.class), any(), any()))
+                .thenReturn(false);
+
+        maintenance.maintain(YearMonth.of(2026, 3));
+
+        verify(jdbcTemplate).execute("create table if not exists transfers_record_p2026_04 partition of transfers_record"
+                + " for values from ('2026-04-01') to ('2026-05-01')");
+        verify(jdbcTemplate).execute("create table if not exists transfers_record_p2026_05 partition of transfers_record"
+                + " for values from ('2026-05-01') to ('2026-06-01')");
+        verify(jdbcTemplate, never()).execute(contains("transfers_record_p2026_03 partition of"));
+
+        InOrder archive = inOrder(jdbcTemplate);
+        archive.verify(jdbcTemplate).execute("alter table transfers_record detach partition transfers_record_p2025_12");
+        archive.verify(jdbcTemplate).execute("alter table transfers_record_p2025_12 set schema transfers_archive");
+        verify(jdbcTemplate, never()).execute(contains("detach partition transfers_record_p2026_02"));
+        verify(jdbcTemplate, never()).execute(startsWith("drop table"));
+    }
+
+    @Test
+    void maintain_skipsMonthStuckInDefault_andSurvivesFailedMonth() {
+        TransferPartitionMaintenance maintenance =
+                new TransferPartitionMaintenance(jdbcTemplate, transactionManager, true, 3, 3, false);
+
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Integer.class), any()))
+                .thenReturn(1);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), any()))
+                .thenReturn(List.of("transfers_record_default", "transfers_record_p2025_12", "transfers_record_p2026_03"));
+        when(jdbcTemplate.queryForObject(contains("transfers_record_default"), eq(Boolean.class), any(), any()))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForObject(contains("transfers_record_default"), eq(Boolean.class),
+                eq(LocalDateTime.of(2026, 4, 1, 0, 0)), any()))
+                .thenReturn(true);
+        lenient().doThrow(new DataIntegrityViolationException("partition would overlap"))
+                .when(jdbcTemplate).execute(contains("transfers_record_p2026_05 partition of"));
+
+        maintenance.maintain(YearMonth.of(2026, 3));
+
+        verify(jdbcTemplate, never()).execute(contains("transfers_record_p2026_04 partition of"));
+        verify(jdbcTemplate).execute("create table if not exists transfers_record_p2026_06 partition of transfers_record"
+                + " for values from ('2026-06-01') to ('2026-07-01')");
+        verify(jdbcTemplate).execute("alter table transfers_record detach partition transfers_record_p2025_12");
+        verify(jdbcTemplate).execute("alter table transfers_record_p2025_12 set schema transfers_archive");
+        // каждый месяц - отдельная транзакция: сбой по 2026_05 откатывает только ее
+        verify(transactionManager, times(4)).commit(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void maintain_skipsWork_whenAnotherInstanceHoldsLock() {
+        TransferPartitionMaintenance maintenance =
+                new TransferPartitionMaintenance(jdbcTemplate, transactionManager, true, 3, 0, false);
+
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any()))
+                .thenReturn(false);
+
+        maintenance.maintain(YearMonth.of(2026, 3));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+    }
+}
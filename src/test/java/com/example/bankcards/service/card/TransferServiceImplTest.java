@@ -1,28 +1,44 @@
 package com.example.bankcards.service.card;
 
+import com.example.bankcards.dto.card.TransferBatchItemStatus;
+import com.example.bankcards.dto.card.TransferBatchRequest;
 import com.example.bankcards.dto.card.TransferRequest;
+import com.example.bankcards.dto.card.TransferResponse;
 import com.example.bankcards.entity.card.BankCard;
 import com.example.bankcards.entity.card.BankCardStatus;
+import com.example.bankcards.entity.card.TransferIdempotency;
 import com.example.bankcards.entity.card.TransferRecord;
 import com.example.bankcards.entity.user.AppUser;
+import com.example.bankcards.metrics.BankMetrics;
 import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.TransferIdempotencyRepository;
 import com.example.bankcards.repository.TransferRecordsRepository;
+import com.example.bankcards.repository.projection.CardBalanceView;
+import com.example.bankcards.repository.projection.TransferBalances;
+import com.example.bankcards.service.common.AdmissionController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -31,8 +47,24 @@ class TransferServiceImplTest {
 
     @Mock CardsRepository cardsRepository;
     @Mock TransferRecordsRepository transferRecordsRepository;
+    @Mock TransferIdempotencyRepository idempotencyRepository;
+    @Mock PlatformTransactionManager transactionManager;
+    @Spy TransferIdempotencyCache idempotencyCache = new TransferIdempotencyCache(100, 24);
+    @Spy CardLockManager cardLocks = new CardLockManager(true, 16, 1000);
+    AdmissionController admission = new AdmissionController(true, false, 1, 10, 0, 0);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    TransferServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(TransferStrategy.PESSIMISTIC);
+    }
 
-    @InjectMocks TransferServiceImpl service;
+    private TransferServiceImpl newService(TransferStrategy strategy) {
+        return new TransferServiceImpl(cardsRepository, transferRecordsRepository, idempotencyRepository,
+                idempotencyCache, cardLocks, admission, meterRegistry, transactionManager, strategy, 2, 0);
+    }
 
     @Test
     void transfer_success_balancesUpdated_andRecordSaved() {
@@ -77,6 +109,49 @@ class TransferServiceImplTest {
         assertThat(resp.toBalanceAfter()).isEqualByComparingTo("35.00");
 
         verify(transferRecordsRepository, times(1)).save(any(TransferRecord.class));
+        // допуск берется только на время транзакции и возвращается
+        assertThat(admission.stats().admitted()).isEqualTo(1);
+        assertThat(admission.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void transfer_recordsPhaseTimers_taggedByOutcomeAndException() {
+        UUID userId = UUID.randomUUID();
+
+        UUID fromId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID toId   = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        BankCard from = BankCard.builder()
+                .id(fromId)
+                .status(BankCardStatus.ACTIVE)
+                .expirationDate(LocalDate.now().plusYears(1))
+                .balance(new BigDecimal("30.00"))
+                .build();
+        BankCard to = BankCard.builder()
+                .id(toId)
+                .status(BankCardStatus.ACTIVE)
+                .expirationDate(LocalDate.now().plusYears(1))
+                .balance(BigDecimal.ZERO)
+                .build();
+
+        when(cardsRepository.lockByIdAndOwnerId(eq(fromId), eq(userId))).thenReturn(Optional.of(from));
+        when(cardsRepository.lockByIdAndOwnerId(eq(toId), eq(userId))).thenReturn(Optional.of(to));
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.transfer(userId, new TransferRequest(fromId, toId, new BigDecimal("20.00")));
+        assertThatThrownBy(() -> service.transfer(userId, new TransferRequest(fromId, toId, new BigDecimal("20.00"))))
+                .isInstanceOf(IllegalStateException.class);
+
+        for (String phase : List.of(TransferServiceImpl.PHASE_LOCK_QUEUE, TransferServiceImpl.PHASE_LOCK_ACQUIRE,
+                TransferServiceImpl.PHASE_PERSIST)) {
+            assertThat(meterRegistry.get(BankMetrics.TRANSFER_PHASE)
+                    .tags("phase", phase, "strategy", "PESSIMISTIC", "outcome", "success")
+                    .timer().count()).as(phase).isEqualTo(phase.equals(TransferServiceImpl.PHASE_PERSIST) ? 1 : 2);
+        }
+        assertThat(meterRegistry.get(BankMetrics.TRANSFER_PHASE)
+                .tags("phase", TransferServiceImpl.PHASE_VALIDATE, "outcome", "failure",
+                        "exception", "IllegalStateException")
+                .timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -285,4 +360,344 @@ class TransferServiceImplTest {
 
         verifyNoInteractions(cardsRepository, transferRecordsRepository);
     }
+
+    @Test
+    void transfer_takesCardLocks_beforeOpeningTransaction() {
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.lockByIdAndOwnerId(eq(a), eq(userId))).thenReturn(Optional.of(activeCard(a, userId, "0.00")));
+        when(cardsRepository.lockByIdAndOwnerId(eq(b), eq(userId))).thenReturn(Optional.of(activeCard(b, userId, "10.00")));
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.transfer(userId, new TransferRequest(b, a, new BigDecimal("1.00")));
+
+        InOrder inOrder = inOrder(cardLocks, transactionManager);
+        inOrder.verify(cardLocks).withLocks(eq(List.of(b, a)), any());
+        inOrder.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void transferBatch_locksAllCardsOnce_inLockOrder_andRejectsFailedItems() {
+        UUID userId = UUID.randomUUID();
+
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID c = UUID.fromString("00000000-0000-0000-0000-000000000003");
+
+        BankCard ca = activeCard(a, userId, "100.00");
+        BankCard cb = activeCard(b, userId, "0.00");
+        BankCard cc = activeCard(c, userId, "5.00");
+
+        when(cardsRepository.lockAllByIdsAndOwnerId(eq(List.of(a, b, c)), eq(userId)))
+                .thenReturn(List.of(ca, cb, cc));
+        when(transferRecordsRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<TransferRecord> records = inv.getArgument(0);
+            records.forEach(r -> {
+                r.setId(UUID.randomUUID());
+                r.setCreatedAt(LocalDateTime.now());
+            });
+            return records;
+        });
+
+        var resp = service.transferBatch(userId, new TransferBatchRequest(List.of(
+                new TransferRequest(c, a, new BigDecimal("50.00")),
+                new TransferRequest(a, b, new BigDecimal("30.00")),
+                new TransferRequest(b, c, new BigDecimal("10.00"))
+        )));
+
+        assertThat(resp.applied()).isEqualTo(2);
+        assertThat(resp.rejected()).isEqualTo(1);
+
+        assertThat(resp.items().get(0).status()).isEqualTo(TransferBatchItemStatus.REJECTED);
+        assertThat(resp.items().get(0).error()).isEqualTo("Недостаточно средств");
+
+        assertThat(resp.items().get(1).status()).isEqualTo(TransferBatchItemStatus.APPLIED);
+        assertThat(resp.items().get(1).transfer().fromBalanceAfter()).isEqualByComparingTo("70.00");
+        assertThat(resp.items().get(1).transfer().toBalanceAfter()).isEqualByComparingTo("30.00");
+
+        assertThat(resp.items().get(2).status()).isEqualTo(TransferBatchItemStatus.APPLIED);
+        assertThat(resp.items().get(2).transfer().fromBalanceAfter()).isEqualByComparingTo("20.00");
+        assertThat(resp.items().get(2).transfer().toBalanceAfter()).isEqualByComparingTo("15.00");
+
+        assertThat(ca.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(cb.getBalance()).isEqualByComparingTo("20.00");
+        assertThat(cc.getBalance()).isEqualByComparingTo("15.00");
+
+        verify(cardsRepository, never()).lockByIdAndOwnerId(any(), any());
+        verify(transferRecordsRepository, never()).save(any());
+        verify(transferRecordsRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void transferBatch_foreignCard_rejectsOnlyItsItems() {
+        UUID userId = UUID.randomUUID();
+
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        UUID foreign = UUID.fromString("00000000-0000-0000-0000-000000000009");
+
+        when(cardsRepository.lockAllByIdsAndOwnerId(eq(List.of(a, b, foreign)), eq(userId)))
+                .thenReturn(List.of(activeCard(a, userId, "10.00"), activeCard(b, userId, "10.00")));
+        when(transferRecordsRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        var resp = service.transferBatch(userId, new TransferBatchRequest(List.of(
+                new TransferRequest(a, foreign, new BigDecimal("1.00")),
+                new TransferRequest(a, b, new BigDecimal("1.00"))
+        )));
+
+        assertThat(resp.items().get(0).status()).isEqualTo(TransferBatchItemStatus.REJECTED);
+        assertThat(resp.items().get(0).error()).isEqualTo("Карта не найдена: " + foreign);
+        assertThat(resp.items().get(1).status()).isEqualTo(TransferBatchItemStatus.APPLIED);
+    }
+
+    @Test
+    void lockOrder_matchesPostgresUuidOrdering_forHighBitIds() {
+        UUID low = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID high = UUID.fromString("f0000000-0000-0000-0000-000000000001");
+
+        // UUID.compareTo сравнивает со знаком и ставит high раньше low; PostgreSQL - наоборот
+        assertThat(high.compareTo(low)).isNegative();
+        assertThat(TransferServiceImpl.LOCK_ORDER.compare(high, low)).isPositive();
+    }
+
+    @Test
+    void transferIdempotent_firstCall_claimsKey_transfers_andCompletes() {
+        UUID userId = UUID.randomUUID();
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+
+        when(idempotencyRepository.claim(any(), eq(userId), eq("key-1"), eq(fromId), eq(toId), any()))
+                .thenReturn(1);
+        when(cardsRepository.lockByIdAndOwnerId(eq(fromId), eq(userId)))
+                .thenReturn(Optional.of(activeCard(fromId, userId, "100.00")));
+        when(cardsRepository.lockByIdAndOwnerId(eq(toId), eq(userId)))
+                .thenReturn(Optional.of(activeCard(toId, userId, "0.00")));
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> {
+            TransferRecord r = inv.getArgument(0);
+            r.setId(UUID.randomUUID());
+            r.setCreatedAt(LocalDateTime.now());
+            return r;
+        });
+
+        var resp = service.transfer(userId, new TransferRequest(fromId, toId, new BigDecimal("30.00")), " key-1 ");
+
+        assertThat(resp.fromBalanceAfter()).isEqualByComparingTo("70.00");
+        verify(idempotencyRepository).complete(
+                eq(userId), eq("key-1"), eq(resp.id()),
+                argThat(b -> b.compareTo(new BigDecimal("70.00")) == 0),
+                argThat(b -> b.compareTo(new BigDecimal("30.00")) == 0),
+                eq(resp.createdAt())
+        );
+        assertThat(idempotencyCache.get(userId, "key-1")).isEqualTo(resp);
+    }
+
+    @Test
+    void transferIdempotent_keyAlreadyClaimed_returnsStoredResult_withoutTransfer() {
+        UUID userId = UUID.randomUUID();
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+        UUID transferId = UUID.randomUUID();
+
+        when(idempotencyRepository.claim(any(), eq(userId), eq("key-1"), eq(fromId), eq(toId), any()))
+                .thenReturn(0);
+        when(idempotencyRepository.findByUserIdAndIdempotencyKey(userId, "key-1"))
+                .thenReturn(Optional.of(TransferIdempotency.builder()
+                        .userId(userId)
+                        .idempotencyKey("key-1")
+                        .fromCardId(fromId)
+                        .toCardId(toId)
+                        .amount(new BigDecimal("30.00"))
+                        .transferId(transferId)
+                        .fromBalanceAfter(new BigDecimal("70.00"))
+                        .toBalanceAfter(new BigDecimal("30.00"))
+                        .transferCreatedAt(LocalDateTime.now())
+                        .build()));
+
+        var resp = service.transfer(userId, new TransferRequest(fromId, toId, new BigDecimal("30.0")), "key-1");
+
+        assertThat(resp.id()).isEqualTo(transferId);
+        assertThat(resp.fromBalanceAfter()).isEqualByComparingTo("70.00");
+        verifyNoInteractions(cardsRepository, transferRecordsRepository);
+        verify(idempotencyRepository, never()).complete(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void transferIdempotent_cachedKey_skipsDatabase_andRejectsDifferentRequest() {
+        UUID userId = UUID.randomUUID();
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+        TransferResponse cached = new TransferResponse(
+                UUID.randomUUID(), fromId, toId, new BigDecimal("30.00"),
+                LocalDateTime.now(), new BigDecimal("70.00"), new BigDecimal("30.00")
+        );
+        idempotencyCache.put(userId, "key-1", cached);
+
+        var resp = service.transfer(userId, new TransferRequest(fromId, toId, new BigDecimal("30.00")), "key-1");
+        assertThat(resp).isSameAs(cached);
+
+        assertThatThrownBy(() -> service.transfer(userId,
+                new TransferRequest(fromId, toId, new BigDecimal("31.00")), "key-1"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Idempotency-Key уже использован для другого перевода");
+
+        verifyNoInteractions(cardsRepository, transferRecordsRepository, idempotencyRepository, transactionManager);
+    }
+
+    @Test
+    void transferIdempotent_blankKey_throwsIllegalArgument() {
+        UUID userId = UUID.randomUUID();
+        var req = new TransferRequest(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("1.00"));
+
+        assertThatThrownBy(() -> service.transfer(userId, req, "   "))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Idempotency-Key должен быть длиной 1-100 символов");
+
+        verifyNoInteractions(idempotencyRepository, transactionManager);
+    }
+
+    @Test
+    void transferOptimistic_updatesByVersion_inLockOrder_withoutRowLocks() {
+        service = newService(TransferStrategy.OPTIMISTIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.findBalanceViews(List.of(a, b), userId)).thenReturn(List.of(
+                balanceView(a, "5.00", 7), balanceView(b, "100.00", 3)));
+        when(cardsRepository.updateBalanceIfVersion(any(), anyLong(), any())).thenReturn(1);
+        when(cardsRepository.getReferenceById(any())).thenAnswer(inv -> BankCard.builder().id(inv.getArgument(0)).build());
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse resp = service.transfer(userId, new TransferRequest(b, a, new BigDecimal("40.00")));
+
+        assertThat(resp.fromBalanceAfter()).isEqualByComparingTo("60.00");
+        assertThat(resp.toBalanceAfter()).isEqualByComparingTo("45.00");
+
+        InOrder inOrder = inOrder(cardsRepository);
+        inOrder.verify(cardsRepository).updateBalanceIfVersion(eq(a), eq(7L), argThat(v -> v.compareTo(new BigDecimal("45.00")) == 0));
+        inOrder.verify(cardsRepository).updateBalanceIfVersion(eq(b), eq(3L), argThat(v -> v.compareTo(new BigDecimal("60.00")) == 0));
+        verify(cardsRepository, never()).lockByIdAndOwnerId(any(), any());
+    }
+
+    @Test
+    void transferOptimistic_conflict_retriesInNewTransaction() {
+        service = newService(TransferStrategy.OPTIMISTIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.findBalanceViews(List.of(a, b), userId))
+                .thenReturn(List.of(balanceView(a, "10.00", 1), balanceView(b, "0.00", 1)))
+                .thenReturn(List.of(balanceView(a, "12.00", 2), balanceView(b, "0.00", 1)));
+        when(cardsRepository.updateBalanceIfVersion(eq(a), eq(1L), any())).thenReturn(0);
+        when(cardsRepository.updateBalanceIfVersion(eq(a), eq(2L), any())).thenReturn(1);
+        when(cardsRepository.updateBalanceIfVersion(eq(b), eq(1L), any())).thenReturn(1);
+        when(cardsRepository.getReferenceById(any())).thenAnswer(inv -> BankCard.builder().id(inv.getArgument(0)).build());
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse resp = service.transfer(userId, new TransferRequest(a, b, new BigDecimal("2.00")));
+
+        assertThat(resp.fromBalanceAfter()).isEqualByComparingTo("10.00");
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transferRecordsRepository, times(1)).save(any(TransferRecord.class));
+    }
+
+    @Test
+    void transferOptimistic_retriesExhausted_fallsBackToPessimisticLocks() {
+        service = newService(TransferStrategy.OPTIMISTIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.findBalanceViews(List.of(a, b), userId))
+                .thenReturn(List.of(balanceView(a, "10.00", 1), balanceView(b, "0.00", 1)));
+        when(cardsRepository.updateBalanceIfVersion(any(), anyLong(), any())).thenReturn(0);
+        when(cardsRepository.lockByIdAndOwnerId(a, userId)).thenReturn(Optional.of(activeCard(a, userId, "10.00")));
+        when(cardsRepository.lockByIdAndOwnerId(b, userId)).thenReturn(Optional.of(activeCard(b, userId, "0.00")));
+        when(transferRecordsRepository.save(any(TransferRecord.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransferResponse resp = service.transfer(userId, new TransferRequest(a, b, new BigDecimal("4.00")));
+
+        assertThat(resp.toBalanceAfter()).isEqualByComparingTo("4.00");
+        verify(cardsRepository, times(3)).findBalanceViews(any(), eq(userId));
+        verify(transactionManager, times(3)).rollback(any());
+        verify(cardsRepository).lockByIdAndOwnerId(a, userId);
+    }
+
+    @Test
+    void transferOptimistic_insufficientFunds_failsWithoutRetry() {
+        service = newService(TransferStrategy.OPTIMISTIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.findBalanceViews(List.of(a, b), userId))
+                .thenReturn(List.of(balanceView(a, "1.00", 1), balanceView(b, "0.00", 1)));
+
+        assertThatThrownBy(() -> service.transfer(userId, new TransferRequest(a, b, new BigDecimal("4.00"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Недостаточно средств");
+        verify(cardsRepository, never()).updateBalanceIfVersion(any(), anyLong(), any());
+        verify(cardsRepository, never()).lockByIdAndOwnerId(any(), any());
+    }
+
+    @Test
+    void transferAtomic_singleStatement_returnsBalances_withoutEntityWrites() {
+        service = newService(TransferStrategy.ATOMIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        TransferBalances balances = mock(TransferBalances.class);
+        when(balances.getFromBalance()).thenReturn(new BigDecimal("7.00"));
+        when(balances.getToBalance()).thenReturn(new BigDecimal("3.00"));
+        when(cardsRepository.transferAtomically(eq(userId), eq(a), eq(b), eq(new BigDecimal("3.00")), any(), any(),
+                eq(LocalDate.now())))
+                .thenReturn(Optional.of(balances));
+
+        TransferResponse resp = service.transfer(userId, new TransferRequest(a, b, new BigDecimal("3.00")));
+
+        assertThat(resp.id()).isNotNull();
+        assertThat(resp.createdAt()).isNotNull();
+        assertThat(resp.fromBalanceAfter()).isEqualByComparingTo("7.00");
+        assertThat(resp.toBalanceAfter()).isEqualByComparingTo("3.00");
+        verify(cardsRepository, never()).lockByIdAndOwnerId(any(), any());
+        verifyNoInteractions(transferRecordsRepository);
+    }
+
+    @Test
+    void transferAtomic_guardFailed_reportsReasonViaLockedPath() {
+        service = newService(TransferStrategy.ATOMIC);
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID b = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        when(cardsRepository.transferAtomically(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(cardsRepository.lockByIdAndOwnerId(a, userId)).thenReturn(Optional.of(activeCard(a, userId, "1.00")));
+        when(cardsRepository.lockByIdAndOwnerId(b, userId)).thenReturn(Optional.of(activeCard(b, userId, "0.00")));
+
+        assertThatThrownBy(() -> service.transfer(userId, new TransferRequest(a, b, new BigDecimal("3.00"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Недостаточно средств");
+        verify(transferRecordsRepository, never()).save(any());
+    }
+
+    private static CardBalanceView balanceView(UUID id, String balance, long version) {
+        return new CardBalanceView(id, new BigDecimal(balance), BankCardStatus.ACTIVE,
+                LocalDate.now().plusYears(1), version);
+    }
+
+    private static BankCard activeCard(UUID id, UUID userId, String balance) {
+        return BankCard.builder()
+                .id(id)
+                .owner(AppUser.builder().id(userId).build())
+                .status(BankCardStatus.ACTIVE)
+                .expirationDate(LocalDate.now().plusYears(1))
+                .balance(new BigDecimal(balance))
+                .build();
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.bankcards.service.common;
+
+import com.example.bankcards.dto.monitoring.AdmissionStatsResponse;
+import com.example.bankcards.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    @Test
+    void permitsDefaultToPoolSize_andReleaseFreesSlot() {
+        AdmissionController admission = new AdmissionController(true, false, 0, 2, 0, 0);
+
+        admission.acquire();
+        admission.acquire();
+        assertThat(admission.stats().inFlight()).isEqualTo(2);
+
+        assertThatThrownBy(admission::acquire)
+                .isInstanceOf(ServiceOverloadedException.class)
+                .hasMessage("Сервис перегружен, повторите позже");
+
+        admission.release();
+        admission.acquire();
+
+        AdmissionStatsResponse stats = admission.stats();
+        assertThat(stats.permits()).isEqualTo(2);
+        assertThat(stats.admitted()).isEqualTo(3);
+        assertThat(stats.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsInQueue_untilSlotReleased() throws Exception {
+        AdmissionController admission = new AdmissionController(true, true, 1, 10, 10, 5_000);
+        admission.acquire();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<?> waiter = pool.submit(() -> {
+                started.countDown();
+                admission.acquire();
+                admission.release();
+            });
+
+            started.await();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (admission.stats().queued() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(admission.stats().queued()).isEqualTo(1);
+
+            admission.release();
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+
+        AdmissionStatsResponse stats = admission.stats();
+        assertThat(stats.queued()).isZero();
+        assertThat(stats.inFlight()).isZero();
+        assertThat(stats.admitted()).isEqualTo(2);
+        assertThat(stats.virtualThreads()).isTrue();
+    }
+
+    @Test
+    void waitTimeout_rejectsAndCountsTimeout() {
+        AdmissionController admission = new AdmissionController(true, false, 1, 10, 10, 20);
+        admission.acquire();
+
+        assertThatThrownBy(admission::acquire).isInstanceOf(ServiceOverloadedException.class);
+
+        assertThat(admission.stats().timeouts()).isEqualTo(1);
+        assertThat(admission.stats().queued()).isZero();
+    }
+}
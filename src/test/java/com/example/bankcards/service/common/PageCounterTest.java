@@ -0,0 +1,75 @@
+package com.example.bankcards.service.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PageCounterTest {
+
+    @Test
+    void exact_countsEveryTime_andEstimated_usesEstimateOnly() {
+        PageCounter counter = new PageCounter(60_000, 10);
+        AtomicInteger exactCalls = new AtomicInteger();
+
+        assertThat(counter.count(CountStrategy.EXACT, "users", () -> exactCalls.incrementAndGet() * 10L, () -> -1))
+                .isEqualTo(10);
+        assertThat(counter.count(CountStrategy.EXACT, "users", () -> exactCalls.incrementAndGet() * 10L, () -> -1))
+                .isEqualTo(20);
+        assertThat(counter.count(CountStrategy.ESTIMATED, "users", () -> {
+            throw new AssertionError("count(*) не должен выполняться");
+        }, () -> 1234)).isEqualTo(1234);
+    }
+
+    @Test
+    void cached_reusesCountPerSignature_untilTtl() throws Exception {
+        PageCounter counter = new PageCounter(50, 10);
+        AtomicInteger exactCalls = new AtomicInteger();
+
+        long first = counter.count(CountStrategy.CACHED, "cards:a", () -> 100 + exactCalls.incrementAndGet(), () -> 0);
+        long second = counter.count(CountStrategy.CACHED, "cards:a", () -> 100 + exactCalls.incrementAndGet(), () -> 0);
+        long other = counter.count(CountStrategy.CACHED, "cards:b", () -> 100 + exactCalls.incrementAndGet(), () -> 0);
+
+        assertThat(second).isEqualTo(first).isEqualTo(101);
+        assertThat(other).isEqualTo(102);
+
+        Thread.sleep(80);
+        assertThat(counter.count(CountStrategy.CACHED, "cards:a", () -> 100 + exactCalls.incrementAndGet(), () -> 0))
+                .isEqualTo(103);
+    }
+
+    @Test
+    void keepNextPage_estimateBelowPageSize_fullPageStillHasNext() {
+        PageCounter counter = new PageCounter(60_000, 10);
+        List<Integer> fullPage = List.of(1, 2, 3, 4, 5);
+        PageRequest first = PageRequest.of(0, 5);
+
+        // планировщик оценил селективный фильтр в 2 строки, хотя страница из 5 заполнена
+        Page<Integer> raw = PageableExecutionUtils.getPage(fullPage, first,
+                () -> counter.count(CountStrategy.ESTIMATED, "cards", () -> -1, () -> 2));
+        assertThat(raw.hasNext()).isFalse();
+
+        Page<Integer> page = PageCounter.keepNextPage(raw, CountStrategy.ESTIMATED);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(6);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+
+        // неполная страница - последняя при любой оценке; точный счет не меняется
+        Page<Integer> tail = PageableExecutionUtils.getPage(List.of(6), PageRequest.of(1, 5), () -> 2);
+        assertThat(PageCounter.keepNextPage(tail, CountStrategy.ESTIMATED).hasNext()).isFalse();
+        Page<Integer> exact = PageableExecutionUtils.getPage(fullPage, first, () -> 5);
+        assertThat(PageCounter.keepNextPage(exact, CountStrategy.EXACT).hasNext()).isFalse();
+    }
+
+    @Test
+    void constructor_invalidTtl_throwsIllegalState() {
+        assertThatThrownBy(() -> new PageCounter(0, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.paging.count.cache-ttl-ms должен быть > 0");
+    }
+}
@@ -6,8 +6,11 @@ import com.example.bankcards.dto.user.UserEnabledUpdateRequest;
 import com.example.bankcards.dto.user.UserRoleUpdateRequest;
 import com.example.bankcards.entity.user.AppUser;
 import com.example.bankcards.entity.user.UserRole;
+import com.example.bankcards.entity.user.UserTombstone;
 import com.example.bankcards.repository.CardsRepository;
+import com.example.bankcards.repository.UserTombstonesRepository;
 import com.example.bankcards.repository.UsersRepository;
+import com.example.bankcards.security.UserSecurityChangedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +18,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,6 +38,8 @@ class UserServiceImplTest {
     @Mock UsersRepository usersRepository;
     @Mock PasswordEncoder passwordEncoder;
     @Mock CardsRepository cardsRepository;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock UserTombstonesRepository tombstonesRepository;
 
     @InjectMocks UsersServiceImpl service;
 
@@ -106,6 +114,57 @@ class UserServiceImplTest {
         assertThat(user.isEnabled()).isFalse();
         assertThat(resp.id()).isEqualTo(id);
         verify(usersRepository).save(user);
+        verify(eventPublisher).publishEvent(new UserSecurityChangedEvent(id, "u@mail.ru", 0, true, false));
+    }
+
+    @Test
+    void lockAfterFailedLogins_locksOnce_keepsIssuedTokens() {
+        UUID id = UUID.randomUUID();
+        AppUser user = AppUser.builder()
+                .id(id).name("U").email("u@mail.ru").passwordHash("x").role(UserRole.ROLE_USER)
+                .build();
+
+        when(usersRepository.findByEmailLower("u@mail.ru")).thenReturn(Optional.of(user));
+        when(usersRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.lockAfterFailedLogins("U@MAIL.RU", Duration.ofMinutes(15));
+        service.lockAfterFailedLogins("u@mail.ru", Duration.ofMinutes(15));
+
+        assertThat(user.isAccountNonLocked()).isFalse();
+        assertThat(user.getLockedUntil()).isAfter(LocalDateTime.now().plusMinutes(14));
+        verify(usersRepository, times(1)).save(user);
+        // блокировку подбором может вызвать кто угодно: она закрывает только вход по паролю
+        assertThat(user.isTokenAccessAllowed()).isTrue();
+        verifyNoInteractions(eventPublisher);
+
+        when(usersRepository.findById(id)).thenReturn(Optional.of(user));
+        var resp = service.unlock(id);
+
+        assertThat(resp.id()).isEqualTo(id);
+        assertThat(user.isAccountNonLocked()).isTrue();
+        assertThat(user.getLockedUntil()).isNull();
+        verify(eventPublisher).publishEvent(new UserSecurityChangedEvent(id, "u@mail.ru", 0, false, false));
+    }
+
+    @Test
+    void lockAfterFailedLogins_expires_andCanLockAgain() {
+        UUID id = UUID.randomUUID();
+        AppUser user = AppUser.builder()
+                .id(id).name("U").email("u@mail.ru").passwordHash("x").role(UserRole.ROLE_USER)
+                .build();
+
+        when(usersRepository.findByEmailLower("u@mail.ru")).thenReturn(Optional.of(user));
+        when(usersRepository.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // блокировка, срок которой уже прошел, не мешает входу без участия админа
+        service.lockAfterFailedLogins("u@mail.ru", Duration.ofMillis(-1));
+        assertThat(user.getLockedUntil()).isNotNull();
+        assertThat(user.isAccountNonLocked()).isTrue();
+
+        // истекшая блокировка не считается действующей: новая серия неудач блокирует снова
+        service.lockAfterFailedLogins("u@mail.ru", Duration.ofMinutes(15));
+        assertThat(user.isAccountNonLocked()).isFalse();
+        verify(usersRepository, times(2)).save(user);
     }
 
     @Test
@@ -122,6 +181,7 @@ class UserServiceImplTest {
         var resp = service.updateRole(id, new UserRoleUpdateRequest(UserRole.ROLE_ADMIN));
 
         assertThat(user.getRole()).isEqualTo(UserRole.ROLE_ADMIN);
+        assertThat(user.getTokenVersion()).isEqualTo(1);
         assertThat(resp.id()).isEqualTo(id);
         verify(usersRepository).save(user);
     }
@@ -146,6 +206,7 @@ class UserServiceImplTest {
         assertEquals("Нельзя удалить пользователя: есть активные карты", ex.getMessage());
 
         verify(usersRepository, never()).delete(any());
+        verifyNoInteractions(tombstonesRepository);
     }
 
     @Test
@@ -158,6 +219,7 @@ class UserServiceImplTest {
         assertEquals("Нельзя удалить пользователя: есть карты (в том числе удаленные)", ex.getMessage());
 
         verify(usersRepository, never()).delete(any());
+        verifyNoInteractions(tombstonesRepository);
     }
 
     @Test
@@ -172,5 +234,8 @@ class UserServiceImplTest {
         usersService.delete(userId);
 
         verify(usersRepository).delete(user);
+        ArgumentCaptor<UserTombstone> tombstone = ArgumentCaptor.forClass(UserTombstone.class);
+        verify(tombstonesRepository).save(tombstone.capture());
+        assertThat(tombstone.getValue().getUserId()).isEqualTo(userId);
     }
 }
@@ -0,0 +1,128 @@
+package com.example.bankcards.tracing;
+
+import com.example.bankcards.dto.monitoring.SlowTraceResponse;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SlowTraceRecorderTest {
+
+    private static final String[] PATHS = {"/api/transfers", "/api/cards"};
+
+    @Test
+    void slowWatchedRequest_isCapturedAsSpanTree() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(true, 0, 10, 100, PATHS);
+        Tracer tracer = tracer(recorder);
+
+        request(tracer, "/api/transfers", "POST /api/transfers");
+
+        List<SlowTraceResponse> traces = recorder.recent(10);
+        assertThat(traces).hasSize(1);
+
+        SlowTraceResponse trace = traces.getFirst();
+        assertThat(trace.name()).isEqualTo("POST /api/transfers");
+        assertThat(trace.root().children())
+                .extracting(SlowTraceResponse.SpanNode::name)
+                .containsExactly("TransferServiceImpl.transfer");
+
+        SlowTraceResponse.SpanNode service = trace.root().children().getFirst();
+        assertThat(service.children())
+                .extracting(SlowTraceResponse.SpanNode::name)
+                .containsExactly("tx.begin", "CardsRepository.lockByIdAndOwnerId", "tx.commit");
+        assertThat(service.events()).extracting(SlowTraceResponse.SpanEvent::name).containsExactly("card-locks.wait");
+    }
+
+    @Test
+    void fastOrUnwatchedRequests_areNotCaptured() {
+        SlowTraceRecorder fast = new SlowTraceRecorder(true, 60_000, 10, 100, PATHS);
+        request(tracer(fast), "/api/transfers", "POST /api/transfers");
+        assertThat(fast.recent(10)).isEmpty();
+
+        SlowTraceRecorder unwatched = new SlowTraceRecorder(true, 0, 10, 100, PATHS);
+        request(tracer(unwatched), "/api/auth/login", "POST /api/auth/login");
+        assertThat(unwatched.recent(10)).isEmpty();
+    }
+
+    @Test
+    void ringBuffer_keepsNewestTraces_newestFirst() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(true, 0, 2, 100, PATHS);
+        Tracer tracer = tracer(recorder);
+
+        request(tracer, "/api/cards", "GET /api/cards/1");
+        request(tracer, "/api/cards", "GET /api/cards/2");
+        request(tracer, "/api/cards", "GET /api/cards/3");
+
+        assertThat(recorder.recent(10))
+                .extracting(SlowTraceResponse::name)
+                .containsExactly("GET /api/cards/3", "GET /api/cards/2");
+        assertThat(recorder.recent(1)).hasSize(1);
+        assertThatThrownBy(() -> recorder.recent(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sampler_dropsUnwatchedRoots_andChildrenFollowTheirRoot() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(true, 0, 10, 100, PATHS);
+        Tracer tracer = tracer(recorder);
+
+        assertThat(isRecordedWithChild(tracer, "/api/auth/login")).isFalse();
+        assertThat(isRecordedWithChild(tracer, "/api/transfers/batch")).isTrue();
+        // спаны вне HTTP-запроса (планировщики) без url.path тоже не записываются
+        Span background = tracer.spanBuilder("CardExpirationSweeper.sweep").startSpan();
+        assertThat(background.isRecording()).isFalse();
+        background.end();
+    }
+
+    @Test
+    void sampler_disabledRecorder_dropsEverything() {
+        SlowTraceRecorder recorder = new SlowTraceRecorder(false, 0, 10, 100, PATHS);
+
+        assertThat(isRecordedWithChild(tracer(recorder), "/api/transfers")).isFalse();
+    }
+
+    /** Записан ли корень и дочерний спан так же, как корень. */
+    private static boolean isRecordedWithChild(Tracer tracer, String path) {
+        Span root = tracer.spanBuilder("HTTP").setAttribute(BankTracing.URL_PATH, path).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("CardsRepository.findAll").startSpan();
+            assertThat(child.isRecording()).isEqualTo(root.isRecording());
+            child.end();
+        } finally {
+            root.end();
+        }
+        return root.isRecording();
+    }
+
+    private static Tracer tracer(SlowTraceRecorder recorder) {
+        return SdkTracerProvider.builder()
+                .setSampler(recorder.sampler())
+                .addSpanProcessor(recorder)
+                .build()
+                .get(BankTracing.INSTRUMENTATION);
+    }
+
+    private static void request(Tracer tracer, String path, String name) {
+        Span root = tracer.spanBuilder("HTTP")
+                .setAttribute(BankTracing.URL_PATH, path)
+                .startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span service = tracer.spanBuilder("TransferServiceImpl.transfer").startSpan();
+            try (Scope ignoredToo = service.makeCurrent()) {
+                service.addEvent("card-locks.wait");
+                tracer.spanBuilder("tx.begin").startSpan().end();
+                tracer.spanBuilder("CardsRepository.lockByIdAndOwnerId").startSpan().end();
+                tracer.spanBuilder("tx.commit").startSpan().end();
+            } finally {
+                service.end();
+            }
+        } finally {
+            root.updateName(name);
+            root.end();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InstancePoolTest {
+
+    @Test
+    void borrow_reusesReleasedInstances_andDropsOverCapacity() {
+        AtomicInteger created = new AtomicInteger();
+        InstancePool<Object> pool = new InstancePool<>(1, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        Object first = pool.borrow();
+        pool.release(first);
+        assertThat(pool.borrow()).isSameAs(first);
+        assertThat(created).hasValue(1);
+
+        Object second = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        assertThat(created).hasValue(2);
+        assertThat(pool.idleCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PepperHashEncoderTest {
+
+    @Test
+    void sha256Hex_matchesSha256OfPanPlusPepper() {
+        PepperHashEncoder encoder = new PepperHashEncoder("test-pepper");
+
+        assertThat(encoder.sha256Hex("4111111111111111"))
+                .isEqualTo("1548db9d732f3e30f1744dfd2fb5b0894143c2161fd71c06e8f262d09e6241dd");
+    }
+
+    @Test
+    void sha256Hex_nonAsciiPepper_encodedAsUtf8_andStableAcrossCalls() {
+        PepperHashEncoder encoder = new PepperHashEncoder("pépper");
+
+        String expected = "6676eb6cf0ea30bde4de9254e40ceaee3933b3eedba8274da20e4d84b1369c4d";
+        assertThat(encoder.sha256Hex("5500000000000004")).isEqualTo(expected);
+        assertThat(encoder.sha256Hex("5500000000000004")).isEqualTo(expected);
+    }
+
+    @Test
+    void constructor_blankPepper_throws() {
+        assertThatThrownBy(() -> new PepperHashEncoder("  "))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("app.hashEncoder.pepper must be set");
+    }
+}